@@ -0,0 +1,56 @@
+package com.wmdm.test.benchmark;
+
+import com.wmdm.test.DTOs.BookDTO;
+import com.wmdm.test.api.exceptions.ApiErrors;
+import com.wmdm.test.api.exceptions.BusinessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of {@link ApiErrors} for the three error paths of the controller advice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ApiErrorsBenchmark {
+
+    private BindingResult bindingResult;
+    private BusinessException businessException;
+    private ResponseStatusException responseStatusException;
+
+    @Setup
+    public void setUp() {
+        bindingResult = new BeanPropertyBindingResult(new BookDTO(), "bookDTO");
+        bindingResult.rejectValue("title", "NotEmpty", "must not be empty");
+        bindingResult.rejectValue("author", "NotEmpty", "must not be empty");
+        bindingResult.rejectValue("isbn", "NotEmpty", "must not be empty");
+        businessException = new BusinessException("Isbn already registered");
+        responseStatusException = new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book not found for passed isbn");
+    }
+
+    @Benchmark
+    public ApiErrors fromBindingResult() {
+        return new ApiErrors(bindingResult);
+    }
+
+    @Benchmark
+    public ApiErrors fromBusinessException() {
+        return new ApiErrors(businessException);
+    }
+
+    @Benchmark
+    public ApiErrors fromResponseStatusException() {
+        return new ApiErrors(responseStatusException);
+    }
+}
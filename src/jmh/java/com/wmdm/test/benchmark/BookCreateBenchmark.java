@@ -0,0 +1,67 @@
+package com.wmdm.test.benchmark;
+
+import com.wmdm.test.TestApplication;
+import com.wmdm.test.model.entity.Book;
+import com.wmdm.test.model.repository.BookRepository;
+import com.wmdm.test.service.BookService;
+import com.wmdm.test.service.writebehind.BookCreateQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent single-book creates, each in its own transaction through {@link BookService#save}
+ * or grouped by the {@link BookCreateQueue} into batched transactions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(64)
+public class BookCreateBenchmark {
+
+    @Param({"false", "true"})
+    private boolean writeBehind;
+
+    private final AtomicLong isbns = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private BookCreateQueue createQueue;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TestApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--logging.level.root=WARN",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_ON_EXIT=FALSE",
+                        "--book.write-behind.enabled=" + writeBehind);
+        bookService = context.getBean(BookService.class);
+        createQueue = context.getBeanProvider(BookCreateQueue.class).getIfAvailable();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.getBean(BookRepository.class).deleteAllInBatch();
+        context.close();
+    }
+
+    @Benchmark
+    public Book create() {
+        Book book = Book.builder().title("Benchmark").author("JMH").isbn("create-" + isbns.incrementAndGet()).build();
+        return createQueue == null ? bookService.save(book) : createQueue.save(book);
+    }
+}
@@ -0,0 +1,93 @@
+package com.wmdm.test.benchmark;
+
+import com.wmdm.test.TestApplication;
+import com.wmdm.test.model.entity.Book;
+import com.wmdm.test.model.repository.BookRepository;
+import com.wmdm.test.service.BookService;
+import com.wmdm.test.service.cache.CatalogVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link BookService#save} and {@link BookService#find} through the full Spring context
+ * against the embedded H2 database, with a catalog of {@link #CATALOG_SIZE} books. Repeated
+ * searches are served by the page cache; {@link #findByAuthorAfterWrite} starts a new catalog
+ * epoch first, so it pays for the content and count queries as the first search after a write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookServiceBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+
+    private final AtomicLong isbns = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private CatalogVersion catalogVersion;
+    private Pageable pageRequest;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TestApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--logging.level.root=WARN",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_ON_EXIT=FALSE");
+        bookService = context.getBean(BookService.class);
+        catalogVersion = context.getBean(CatalogVersion.class);
+
+        List<Book> catalog = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog.add(Book.builder().title("Title " + i).author("Author " + (i % 100)).isbn("catalog-" + i).build());
+        }
+        bookService.saveAll(catalog);
+        pageRequest = PageRequest.of(0, 20);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.getBean(BookRepository.class).deleteAllInBatch();
+        context.close();
+    }
+
+    @Benchmark
+    public Book save() {
+        long isbn = isbns.incrementAndGet();
+        return bookService.save(Book.builder().title("Benchmark").author("JMH").isbn("save-" + isbn).build());
+    }
+
+    @Benchmark
+    public Page<Book> findByAuthor() {
+        return bookService.find(Book.builder().author("author 42").build(), pageRequest);
+    }
+
+    @Benchmark
+    public Page<Book> findByAuthorAfterWrite() {
+        catalogVersion.bump();
+        return bookService.find(Book.builder().author("author 42").build(), pageRequest);
+    }
+
+    @Benchmark
+    public Page<Book> findAll() {
+        return bookService.find(new Book(), pageRequest);
+    }
+}
@@ -0,0 +1,27 @@
+package com.wmdm.test.benchmark;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Parks the calling thread for a fixed time before each SQL statement, standing in for the
+ * network round trip to a database server that the in-memory H2 database does not have.
+ */
+public class DatabaseLatencyInspector implements StatementInspector {
+
+    static volatile long latencyNanos;
+
+    @Override
+    public String inspect(String sql) {
+        if (latencyNanos > 0) {
+            LockSupport.parkNanos(latencyNanos);
+        }
+        return sql;
+    }
+
+    static void setLatency(long millis) {
+        latencyNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
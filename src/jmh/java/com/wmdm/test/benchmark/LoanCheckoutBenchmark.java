@@ -0,0 +1,79 @@
+package com.wmdm.test.benchmark;
+
+import com.wmdm.test.TestApplication;
+import com.wmdm.test.api.exceptions.BusinessException;
+import com.wmdm.test.model.entity.Loan;
+import com.wmdm.test.model.repository.LoanRepository;
+import com.wmdm.test.service.LoanService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout throughput when every thread competes for the same hot ISBN. A winning checkout
+ * returns the book straight away so the copy keeps changing hands.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+public class LoanCheckoutBenchmark {
+
+    private static final String HOT_ISBN = "hot-isbn";
+
+    private ConfigurableApplicationContext context;
+    private LoanService loanService;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+        public long loaned;
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            loaned = 0;
+            conflicts = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TestApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--logging.level.root=WARN",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_ON_EXIT=FALSE");
+        loanService = context.getBean(LoanService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.getBean(LoanRepository.class).deleteAllInBatch();
+        context.close();
+    }
+
+    @Benchmark
+    public void checkout(Outcomes outcomes) {
+        try {
+            Loan loan = loanService.save(Loan.builder().isbn(HOT_ISBN).custumer("JMH").build());
+            outcomes.loaned++;
+            loanService.returnBook(loan.getId());
+        } catch (BusinessException e) {
+            outcomes.conflicts++;
+        }
+    }
+}
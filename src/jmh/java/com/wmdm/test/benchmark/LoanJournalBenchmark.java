@@ -0,0 +1,61 @@
+package com.wmdm.test.benchmark;
+
+import com.wmdm.test.service.journal.LoanEvent;
+import com.wmdm.test.service.journal.LoanJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost a checkout pays for its audit record, with and without waiting for the group commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class LoanJournalBenchmark {
+
+    @Param({"false", "true"})
+    public boolean syncOnAppend;
+
+    private Path directory;
+    private LoanJournal journal;
+    private LoanEvent event;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("loan-journal");
+        journal = new LoanJournal(directory, 64 * 1024 * 1024, Duration.ofMillis(1), syncOnAppend);
+        event = LoanEvent.builder().type(LoanEvent.Type.CHECKOUT).loanId(42L).timestamp(System.currentTimeMillis())
+                .isbn("978-0132350884").custumer("Wedson").dueDate(LocalDate.now()).build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long append() {
+        return journal.append(event);
+    }
+}
@@ -0,0 +1,124 @@
+package com.wmdm.test.benchmark;
+
+import com.wmdm.test.TestApplication;
+import com.wmdm.test.model.entity.Book;
+import com.wmdm.test.model.repository.BookRepository;
+import com.wmdm.test.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Book lookups over HTTP with many more concurrent clients than Tomcat has platform request
+ * threads, once per execution mode. The second-level cache is off so every lookup is a query,
+ * and each SQL statement waits {@code dbLatencyMillis} as it would for a database across the
+ * network. The connection pool is sized above the client count so request threads, not
+ * connections, are what runs out. Each client looks up a book of its own, so concurrent
+ * lookups never share an in-flight load and each one reaches the database.
+ *
+ * <p>The virtual mode only takes effect on Java 21 or later; on older runtimes both modes
+ * use platform threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(RequestThreadingBenchmark.CLIENTS)
+public class RequestThreadingBenchmark {
+
+    static final int CLIENTS = 800;
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"200"})
+    private long dbLatencyMillis;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI books;
+    private List<Long> ids;
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        DatabaseLatencyInspector.setLatency(0);
+        context = new SpringApplicationBuilder(TestApplication.class)
+                .logStartupInfo(false)
+                .run("--logging.level.root=WARN",
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:threading;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.hikari.maximum-pool-size=1000",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "--spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                                + DatabaseLatencyInspector.class.getName());
+        ids = context.getBean(BookService.class)
+                .saveAll(IntStream.range(0, CLIENTS)
+                        .mapToObj(i -> Book.builder().title("Title").author("Author").isbn("threading-" + i).build())
+                        .collect(Collectors.toList()))
+                .stream()
+                .map(Book::getId)
+                .collect(Collectors.toList());
+        DatabaseLatencyInspector.setLatency(dbLatencyMillis);
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        books = URI.create("http://localhost:" + port + "/api/books/");
+    }
+
+    /**
+     * One benchmark thread, bound to a book no other thread looks up.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+
+        private HttpClient client;
+        private HttpRequest lookup;
+
+        @Setup
+        public void setUp(RequestThreadingBenchmark benchmark) {
+            client = benchmark.client;
+            lookup = HttpRequest.newBuilder(benchmark.books.resolve(
+                            String.valueOf(benchmark.ids.get(benchmark.nextId.getAndIncrement() % CLIENTS))))
+                    .GET()
+                    .build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        DatabaseLatencyInspector.setLatency(0);
+        context.getBean(BookRepository.class).deleteAllInBatch();
+        context.close();
+    }
+
+    @Benchmark
+    public int getBook(Client client) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.client.send(client.lookup, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Lookup failed with status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
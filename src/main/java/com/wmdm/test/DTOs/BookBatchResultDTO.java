@@ -0,0 +1,24 @@
+package com.wmdm.test.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookBatchResultDTO {
+
+    public enum Status { CREATED, DUPLICATE, INVALID }
+
+    private long index;
+    private Status status;
+    private Long id;
+    private String isbn;
+    private List<String> errors;
+
+}
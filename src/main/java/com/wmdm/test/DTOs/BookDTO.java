@@ -1,7 +1,7 @@
 package com.wmdm.test.DTOs;
 
 import lombok.*;
-import javax.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotEmpty;
 
 @Data
 @Builder
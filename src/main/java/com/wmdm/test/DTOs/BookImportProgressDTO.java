@@ -0,0 +1,20 @@
+package com.wmdm.test.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportProgressDTO {
+
+    private long records;
+    private long created;
+    private long duplicates;
+    private long invalid;
+    private boolean done;
+
+}
@@ -0,0 +1,24 @@
+package com.wmdm.test.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanBatchResultDTO {
+
+    public enum Status { LOANED, BOOK_NOT_FOUND, ALREADY_LOANED }
+
+    private long index;
+    private Status status;
+    private Long id;
+    private String isbn;
+    private List<String> errors;
+
+}
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -14,5 +16,6 @@ public class LoanDTO {
     private Long id;
     private String isbn;
     private String custumer;
+    private LocalDate dueDate;
 
 }
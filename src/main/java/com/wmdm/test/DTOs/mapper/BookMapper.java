@@ -0,0 +1,39 @@
+package com.wmdm.test.DTOs.mapper;
+
+import com.wmdm.test.DTOs.BookDTO;
+import com.wmdm.test.model.entity.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BookMapper {
+
+    private BookMapper() {
+    }
+
+    public static BookDTO toDTO(Book book) {
+        return BookDTO.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .isbn(book.getIsbn())
+                .build();
+    }
+
+    public static Book toEntity(BookDTO dto) {
+        return Book.builder()
+                .id(dto.getId())
+                .title(dto.getTitle())
+                .author(dto.getAuthor())
+                .isbn(dto.getIsbn())
+                .build();
+    }
+
+    public static List<BookDTO> toDTOs(List<Book> books) {
+        List<BookDTO> dtos = new ArrayList<>(books.size());
+        for (Book book : books) {
+            dtos.add(toDTO(book));
+        }
+        return dtos;
+    }
+}
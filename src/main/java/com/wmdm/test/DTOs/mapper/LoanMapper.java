@@ -0,0 +1,30 @@
+package com.wmdm.test.DTOs.mapper;
+
+import com.wmdm.test.DTOs.LoanDTO;
+import com.wmdm.test.model.entity.Loan;
+
+public final class LoanMapper {
+
+    private LoanMapper() {
+    }
+
+    public static LoanDTO toDTO(Loan loan) {
+        return LoanDTO.builder()
+                .id(loan.getId())
+                .isbn(loan.getIsbn())
+                .custumer(loan.getCustumer())
+                .dueDate(loan.getDueDate())
+                .build();
+    }
+
+    /**
+     * Leaves the due date out: checkout sets it.
+     */
+    public static Loan toEntity(LoanDTO dto) {
+        return Loan.builder()
+                .id(dto.getId())
+                .isbn(dto.getIsbn())
+                .custumer(dto.getCustumer())
+                .build();
+    }
+}
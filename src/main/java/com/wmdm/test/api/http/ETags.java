@@ -0,0 +1,80 @@
+package com.wmdm.test.api.http;
+
+import com.wmdm.test.model.entity.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Strong entity tags for books. A single book is tagged with its {@code @Version}, a page
+ * with a digest of the ids and versions of its content and of its total.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Long version) {
+        return "\"" + (version == null ? 0L : version) + "\"";
+    }
+
+    public static String of(Page<Book> page) {
+        StringBuilder state = new StringBuilder().append(page.getTotalElements());
+        for (Book book : page.getContent()) {
+            state.append(';').append(book.getId()).append(':').append(book.getVersion());
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * The versions an {@code If-Match} header lists, or {@code null} for {@code *}. A weak tag
+     * counts as its strong form; a well-formed tag that is no version, such as a page tag,
+     * matches no book. A malformed header is answered 400.
+     */
+    public static Set<Long> versions(String ifMatch) {
+        if (ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Set<Long> versions = new LinkedHashSet<>();
+        int i = 0;
+        boolean tags = false;
+        while (i < ifMatch.length()) {
+            char c = ifMatch.charAt(i);
+            if (c == ' ' || c == '\t' || c == ',') {
+                i++;
+                continue;
+            }
+            if (ifMatch.startsWith("W/", i)) {
+                i += 2;
+            }
+            int end = i < ifMatch.length() && ifMatch.charAt(i) == '"' ? ifMatch.indexOf('"', i + 1) : -1;
+            if (end < 0 || (end + 1 < ifMatch.length() && " \t,".indexOf(ifMatch.charAt(end + 1)) < 0)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid If-Match: " + ifMatch);
+            }
+            try {
+                versions.add(Long.valueOf(ifMatch.substring(i + 1, end)));
+            } catch (NumberFormatException e) {
+                // a tag of something else than a book
+            }
+            tags = true;
+            i = end + 1;
+        }
+        if (!tags) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid If-Match: " + ifMatch);
+        }
+        return versions;
+    }
+
+    /**
+     * Whether an {@code If-Match} header lists the given version of a book, or is {@code *}.
+     */
+    public static boolean matches(String ifMatch, Long version) {
+        Set<Long> versions = versions(ifMatch);
+        return versions == null || versions.contains(version == null ? 0L : version);
+    }
+}
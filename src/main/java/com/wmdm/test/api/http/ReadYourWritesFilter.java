@@ -0,0 +1,141 @@
+package com.wmdm.test.api.http;
+
+import com.wmdm.test.model.datasource.ReplicaRouting;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps a client on the primary database for {@code stickyWindow} after it writes to the
+ * catalog, so it reads its own writes while the replicas catch up. A request with an unsafe
+ * method runs on the primary; one under {@code catalogPath} that succeeds marks the client
+ * with a cookie holding the time of the write. Requests bringing a cookie from within the
+ * window run on the primary as well.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "catalog-write";
+
+    private static final List<String> SAFE_METHODS = Arrays.asList("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final long stickyWindowMillis;
+    private final String catalogPath;
+
+    public ReadYourWritesFilter(Duration stickyWindow, String catalogPath) {
+        this.stickyWindowMillis = stickyWindow.toMillis();
+        this.catalogPath = catalogPath;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if (!write && !wroteWithin(request, now)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (ReplicaRouting.Scope primary = ReplicaRouting.primaryOnly()) {
+            if (!write || !isCatalog(request)) {
+                chain.doFilter(request, response);
+                return;
+            }
+            CatalogWriteResponse written = new CatalogWriteResponse(response, now);
+            chain.doFilter(request, written);
+            if (!request.isAsyncStarted()) {
+                written.markClient();
+            }
+        }
+    }
+
+    private boolean isCatalog(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.equals(catalogPath) || path.startsWith(catalogPath + "/");
+    }
+
+    /**
+     * Sets the cookie once the status is known to be a success, just before the response is
+     * committed: when the body is first written, or after the request for one without a body.
+     */
+    private final class CatalogWriteResponse extends HttpServletResponseWrapper {
+
+        private final long writtenAt;
+        private boolean decided;
+
+        private CatalogWriteResponse(HttpServletResponse response, long writtenAt) {
+            super(response);
+            this.writtenAt = writtenAt;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            markClient();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            markClient();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            markClient();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int status) throws IOException {
+            decided = true;
+            super.sendError(status);
+        }
+
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            decided = true;
+            super.sendError(status, message);
+        }
+
+        private void markClient() {
+            if (decided) {
+                return;
+            }
+            decided = true;
+            if (getStatus() < HttpServletResponse.SC_BAD_REQUEST && !isCommitted()) {
+                Cookie cookie = new Cookie(COOKIE, Long.toString(writtenAt));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge((int) Math.max(1, (stickyWindowMillis + 999) / 1000));
+                addCookie(cookie);
+            }
+        }
+    }
+
+    private boolean wroteWithin(HttpServletRequest request, long now) {
+        if (request.getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return now - Long.parseLong(cookie.getValue()) < stickyWindowMillis;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,34 @@
+package com.wmdm.test.api.http;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Gives a streamed response its own async timeout. Without one a
+ * {@code StreamingResponseBody} gets the MVC default, which is the servlet container's
+ * 30 seconds unless {@code spring.mvc.async.request-timeout} is set, and a long stream is
+ * cut off part way. A handler sets the timeout with {@link #set(WebRequest, Duration)}
+ * before returning the body; this interceptor applies it before async processing starts.
+ */
+public class StreamingTimeout implements CallableProcessingInterceptor {
+
+    static final String ATTRIBUTE = StreamingTimeout.class.getName();
+
+    public static void set(WebRequest request, Duration timeout) {
+        request.setAttribute(ATTRIBUTE, timeout, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        Object timeout = request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (timeout instanceof Duration && request instanceof AsyncWebRequest) {
+            ((AsyncWebRequest) request).setTimeout(((Duration) timeout).toMillis());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.wmdm.test.api.io;
+
+import com.wmdm.test.DTOs.BookDTO;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * RFC 4180 CSV rows for {@link BookDTO}: {@code id,title,author,isbn}, values quoted only
+ * when they contain a comma, quote or line break.
+ */
+public final class BookCsv {
+
+    public static final String HEADER = "id,title,author,isbn";
+
+    private BookCsv() {
+    }
+
+    public static void writeHeader(Writer out) throws IOException {
+        out.write(HEADER);
+        out.write('\n');
+    }
+
+    public static void write(Writer out, BookDTO dto) throws IOException {
+        out.write(dto.getId() == null ? "" : dto.getId().toString());
+        out.write(',');
+        writeValue(out, dto.getTitle());
+        out.write(',');
+        writeValue(out, dto.getAuthor());
+        out.write(',');
+        writeValue(out, dto.getIsbn());
+        out.write('\n');
+    }
+
+    private static void writeValue(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
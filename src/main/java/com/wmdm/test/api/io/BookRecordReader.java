@@ -0,0 +1,269 @@
+package com.wmdm.test.api.io;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wmdm.test.DTOs.BookDTO;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads {@link BookDTO} records one at a time from an NDJSON or CSV upload, so a file of
+ * any size is parsed with a single record in memory. A record that cannot be parsed, or is
+ * longer than {@code maxRecordLength} characters, is returned with an error instead of
+ * failing the whole upload; reading resumes on the line after it.
+ */
+public abstract class BookRecordReader {
+
+    public static final int DEFAULT_MAX_RECORD_LENGTH = 64 * 1024;
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int end;
+    private final StringBuilder line = new StringBuilder();
+    protected final int maxRecordLength;
+    protected long number;
+
+    private BookRecordReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    public static BookRecordReader ndjson(Reader reader, ObjectMapper objectMapper) {
+        return ndjson(reader, objectMapper, DEFAULT_MAX_RECORD_LENGTH);
+    }
+
+    public static BookRecordReader ndjson(Reader reader, ObjectMapper objectMapper, int maxRecordLength) {
+        return new Ndjson(reader, objectMapper, maxRecordLength);
+    }
+
+    public static BookRecordReader csv(Reader reader) throws IOException {
+        return csv(reader, DEFAULT_MAX_RECORD_LENGTH);
+    }
+
+    /**
+     * Reads the header line first; it must name the {@code title}, {@code author} and
+     * {@code isbn} columns, in any order.
+     */
+    public static BookRecordReader csv(Reader reader, int maxRecordLength) throws IOException {
+        return new Csv(reader, maxRecordLength);
+    }
+
+    /**
+     * The next record, or {@code null} at the end of the input.
+     */
+    public abstract Record next() throws IOException;
+
+    public static final class Record {
+        private final long number;
+        private final BookDTO book;
+        private final String error;
+
+        private Record(long number, BookDTO book, String error) {
+            this.number = number;
+            this.book = book;
+            this.error = error;
+        }
+
+        public long getNumber() {
+            return number;
+        }
+
+        public BookDTO getBook() {
+            return book;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    /**
+     * The next line without its terminator, or {@code null} at the end of the input. Keeps at
+     * most {@code limit} characters: the rest of a longer line is skipped, then a
+     * {@link RecordTooLongException} thrown.
+     */
+    protected String readLine(int limit) throws IOException {
+        line.setLength(0);
+        boolean read = false;
+        boolean tooLong = false;
+        while (true) {
+            if (position == end) {
+                int count = reader.read(buffer, 0, buffer.length);
+                if (count < 0) {
+                    if (!read) {
+                        return null;
+                    }
+                    break;
+                }
+                position = 0;
+                end = count;
+            }
+            read = true;
+            int start = position;
+            while (position < end && buffer[position] != '\n') {
+                position++;
+            }
+            if (!tooLong && line.length() + position - start > limit) {
+                tooLong = true;
+                line.setLength(0);
+            }
+            if (!tooLong) {
+                line.append(buffer, start, position - start);
+            }
+            if (position < end) {
+                position++;
+                break;
+            }
+        }
+        if (tooLong) {
+            throw new RecordTooLongException(maxRecordLength);
+        }
+        if (line.length() > 0 && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+        }
+        return line.toString();
+    }
+
+    static final class RecordTooLongException extends IllegalArgumentException {
+        private RecordTooLongException(int maxRecordLength) {
+            super("Record longer than " + maxRecordLength + " characters");
+        }
+    }
+
+    private static final class Ndjson extends BookRecordReader {
+        private final ObjectMapper objectMapper;
+
+        private Ndjson(Reader reader, ObjectMapper objectMapper, int maxRecordLength) {
+            super(reader, maxRecordLength);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Record next() throws IOException {
+            String line;
+            do {
+                number++;
+                try {
+                    line = readLine(maxRecordLength);
+                } catch (RecordTooLongException e) {
+                    return new Record(number, null, e.getMessage());
+                }
+            } while (line != null && line.trim().isEmpty());
+            if (line == null) {
+                return null;
+            }
+            try {
+                return new Record(number, objectMapper.readValue(line, BookDTO.class), null);
+            } catch (JsonProcessingException e) {
+                return new Record(number, null, "Malformed JSON record");
+            }
+        }
+    }
+
+    private static final class Csv extends BookRecordReader {
+        private final int title;
+        private final int author;
+        private final int isbn;
+
+        private Csv(Reader reader, int maxRecordLength) throws IOException {
+            super(reader, maxRecordLength);
+            List<String> header = readValues();
+            if (header == null) {
+                header = new ArrayList<>();
+            }
+            if (!header.isEmpty() && header.get(0).indexOf(BYTE_ORDER_MARK) == 0) {
+                header.set(0, header.get(0).substring(1));
+            }
+            header.replaceAll(String::trim);
+            title = header.indexOf("title");
+            author = header.indexOf("author");
+            isbn = header.indexOf("isbn");
+            if (title < 0 || author < 0 || isbn < 0) {
+                throw new IllegalArgumentException("CSV header must contain title, author and isbn");
+            }
+        }
+
+        @Override
+        public Record next() throws IOException {
+            List<String> values;
+            try {
+                values = readValues();
+            } catch (IllegalArgumentException e) {
+                return new Record(++number, null, e.getMessage());
+            }
+            if (values == null) {
+                return null;
+            }
+            number++;
+            if (values.size() <= Math.max(title, Math.max(author, isbn))) {
+                return new Record(number, null, "Missing CSV columns");
+            }
+            return new Record(number, BookDTO.builder()
+                    .title(emptyToNull(values.get(title)))
+                    .author(emptyToNull(values.get(author)))
+                    .isbn(emptyToNull(values.get(isbn)))
+                    .build(), null);
+        }
+
+        /**
+         * One RFC 4180 record, which spans several lines when a quoted value contains line breaks;
+         * together they may not be longer than {@code maxRecordLength}.
+         */
+        private List<String> readValues() throws IOException {
+            String line = readLine(maxRecordLength);
+            while (line != null && line.isEmpty()) {
+                line = readLine(maxRecordLength);
+            }
+            if (line == null) {
+                return null;
+            }
+            int remaining = maxRecordLength - line.length();
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                for (int i = 0; i < line.length(); i++) {
+                    char c = line.charAt(i);
+                    if (quoted) {
+                        if (c != '"') {
+                            value.append(c);
+                        } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            value.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        values.add(value.toString());
+                        value.setLength(0);
+                    } else {
+                        value.append(c);
+                    }
+                }
+                if (!quoted) {
+                    break;
+                }
+                line = readLine(Math.max(0, remaining - 1));
+                if (line == null) {
+                    throw new IllegalArgumentException("Unterminated quoted value");
+                }
+                remaining -= line.length() + 1;
+                value.append('\n');
+            }
+            values.add(value.toString());
+            return values;
+        }
+
+        private static String emptyToNull(String value) {
+            return value.isEmpty() ? null : value;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.wmdm.test.api.pagination;
+
+import com.wmdm.test.model.entity.Book;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Position in a keyset-paginated book listing: the sort order, the last book returned and
+ * the filter of the listing, which a cursor only continues. Clients only see it as an
+ * opaque token.
+ */
+public final class BookCursor {
+
+    private static final List<String> SORTABLE_PROPERTIES = Arrays.asList("id", "title", "author", "isbn");
+    // prefixes of the sort key in a token, telling a book without one from one whose key is "null"
+    private static final char NULL_KEY = '-';
+    private static final char KEY = '=';
+
+    private final Sort.Order order;
+    private final Book last;
+    private final String filter;
+
+    private BookCursor(Sort.Order order, Book last, String filter) {
+        this.order = order;
+        this.last = last;
+        this.filter = filter;
+    }
+
+    public static BookCursor first(Sort sort, Book filter) {
+        Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc("id"));
+        if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort property: " + order.getProperty());
+        }
+        return new BookCursor(order, null, fingerprint(filter));
+    }
+
+    public static BookCursor decode(String token, Book filter) {
+        BookCursor cursor;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\n", 5);
+            Sort.Order order = new Sort.Order(Sort.Direction.fromString(parts[0]), parts[1]);
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException(order.getProperty());
+            }
+            Book last = Book.builder().id(Long.valueOf(parts[2])).build();
+            if (!"id".equals(order.getProperty())) {
+                String key = parts[4];
+                if (key.charAt(0) == KEY) {
+                    new BeanWrapperImpl(last).setPropertyValue(order.getProperty(), key.substring(1));
+                } else if (key.charAt(0) != NULL_KEY || key.length() > 1) {
+                    throw new IllegalArgumentException(key);
+                }
+            }
+            cursor = new BookCursor(order, last, parts[3]);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        if (!cursor.filter.equals(fingerprint(filter))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor was issued for another filter");
+        }
+        return cursor;
+    }
+
+    public String next(Book last) {
+        Object key = new BeanWrapperImpl(last).getPropertyValue(order.getProperty());
+        String token = order.getDirection() + "\n" + order.getProperty() + "\n" + last.getId() + "\n" + filter
+                + "\n" + (key == null ? String.valueOf(NULL_KEY) : KEY + key.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Sort.Order getOrder() {
+        return order;
+    }
+
+    public Book getLast() {
+        return last;
+    }
+
+    /**
+     * Short digest of the filter fields; String hash codes are fixed by the language, so a
+     * token stays valid across restarts and instances.
+     */
+    private static String fingerprint(Book filter) {
+        return Integer.toHexString(Arrays.asList(filter.getTitle(), filter.getAuthor(), filter.getIsbn()).hashCode());
+    }
+}
@@ -0,0 +1,33 @@
+package com.wmdm.test.api.pagination;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Page whose total may be an estimate, as requested by an approximate search; the flag is
+ * serialized next to {@code totalElements}. The number of pages follows the total, so it
+ * is an estimate too.
+ */
+public class CountedPage<T> extends PageImpl<T> {
+
+    private final boolean totalApproximate;
+
+    public CountedPage(List<T> content, Pageable pageable, long total, boolean totalApproximate) {
+        super(content, pageable, total);
+        this.totalApproximate = totalApproximate;
+    }
+
+    public boolean isTotalApproximate() {
+        return totalApproximate;
+    }
+
+    @Override
+    public <U> CountedPage<U> map(Function<? super T, ? extends U> converter) {
+        List<U> content = getContent().stream().map(converter).collect(Collectors.toList());
+        return new CountedPage<>(content, getPageable(), getTotalElements(), totalApproximate);
+    }
+}
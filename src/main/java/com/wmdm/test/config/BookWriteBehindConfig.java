@@ -0,0 +1,30 @@
+package com.wmdm.test.config;
+
+import com.wmdm.test.service.BookService;
+import com.wmdm.test.service.writebehind.BookCreateQueue;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "book.write-behind.enabled", havingValue = "true")
+public class BookWriteBehindConfig {
+
+    @Bean(destroyMethod = "close")
+    public BookCreateQueue bookCreateQueue(BookService bookService, MeterRegistry registry,
+                                           @Value("${book.write-behind.capacity:10000}") int capacity,
+                                           @Value("${book.write-behind.batch-size:500}") int batchSize,
+                                           @Value("${book.write-behind.max-delay:5ms}") Duration maxDelay,
+                                           @Value("${book.write-behind.save-timeout:5s}") Duration saveTimeout) {
+        BookCreateQueue queue = new BookCreateQueue(bookService, capacity, batchSize, maxDelay, saveTimeout);
+        Gauge.builder("book.write-behind.queued", queue, BookCreateQueue::size)
+                .description("Book creates waiting for the next flush")
+                .register(registry);
+        return queue;
+    }
+}
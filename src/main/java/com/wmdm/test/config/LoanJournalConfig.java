@@ -0,0 +1,24 @@
+package com.wmdm.test.config;
+
+import com.wmdm.test.service.journal.LoanJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "loan.journal.enabled", havingValue = "true")
+public class LoanJournalConfig {
+
+    @Bean(destroyMethod = "close")
+    public LoanJournal loanJournal(@Value("${loan.journal.directory:journal}") String directory,
+                                   @Value("${loan.journal.segment-size:64MB}") DataSize segmentSize,
+                                   @Value("${loan.journal.flush-interval:5ms}") Duration flushInterval,
+                                   @Value("${loan.journal.sync-on-append:false}") boolean syncOnAppend) {
+        return new LoanJournal(Paths.get(directory), Math.toIntExact(segmentSize.toBytes()), flushInterval, syncOnAppend);
+    }
+}
@@ -0,0 +1,70 @@
+package com.wmdm.test.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wmdm.test.controller.ReactiveBookHandler;
+import com.wmdm.test.model.repository.ReactiveBookRepository;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Reactive catalog reads on their own Reactor Netty server, so slow clients wait on the event
+ * loops instead of holding servlet request threads. R2DBC connections are opened against the
+ * H2 database the JDBC pool already uses, so both see the same rows.
+ */
+@Configuration
+@ConditionalOnProperty(name = "book.reactive.enabled", havingValue = "true")
+public class ReactiveCatalogConfig {
+
+    private static final String H2_JDBC_PREFIX = "jdbc:h2:";
+
+    @Bean(destroyMethod = "close")
+    public ReactiveBookRepository reactiveBookRepository(DataSource dataSource, DataSourceProperties properties,
+                                                         @Value("${book.reactive.max-connections:10}") int maxConnections) throws SQLException {
+        String url;
+        try (Connection connection = dataSource.getConnection()) {
+            url = connection.getMetaData().getURL();
+        }
+        if (!url.startsWith(H2_JDBC_PREFIX)) {
+            throw new IllegalStateException("The reactive catalog reads from H2 only, the datasource is " + url);
+        }
+        H2ConnectionFactory factory = new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .url(url.substring(H2_JDBC_PREFIX.length()))
+                .username(properties.determineUsername())
+                .password(properties.determinePassword())
+                .build());
+        return new ReactiveBookRepository(new ConnectionPool(ConnectionPoolConfiguration.builder(factory)
+                .maxSize(maxConnections)
+                .build()));
+    }
+
+    @Bean(destroyMethod = "disposeNow")
+    public DisposableServer reactiveCatalogServer(ReactiveBookRepository reactiveBookRepository, ObjectMapper objectMapper,
+                                                  @Value("${book.reactive.port:8081}") int port) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper)))
+                .build();
+        HttpHandler handler = RouterFunctions.toHttpHandler(new ReactiveBookHandler(reactiveBookRepository).routes(), strategies);
+        return HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(handler))
+                .bindNow();
+    }
+}
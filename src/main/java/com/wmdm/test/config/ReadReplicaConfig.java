@@ -0,0 +1,106 @@
+package com.wmdm.test.config;
+
+import com.wmdm.test.api.http.ReadYourWritesFilter;
+import com.wmdm.test.model.datasource.ReplicaRouting;
+import com.wmdm.test.model.datasource.ReplicaRoutingDataSource;
+import com.wmdm.test.model.datasource.ReplicaSet;
+import com.wmdm.test.service.cache.CatalogVersion;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Read-only transactions on the read replicas, everything else on the primary configured by
+ * {@code spring.datasource.*}. Replicas reach the primary's heartbeat row through replication,
+ * so their lag can be measured; they use the primary's credentials.
+ *
+ * <p>With {@code book.read-replicas.primary-after-write} every read goes to the primary for
+ * {@code max-lag} after any catalog write made through this instance, which also keeps replica
+ * rows out of the Hibernate second-level cache then; under steady writes the replicas get no
+ * reads at all, so it is off by default.
+ */
+@Configuration
+@ConditionalOnProperty(name = "book.read-replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    static final String CATALOG_PATH = "/api/books";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaSet replicaSet(@Qualifier("primaryDataSource") DataSource primary, DataSourceProperties properties,
+                                 MeterRegistry registry,
+                                 @Value("${book.read-replicas.urls}") List<String> urls,
+                                 @Value("${book.read-replicas.max-lag:2s}") Duration maxLag,
+                                 @Value("${book.read-replicas.lag-check-interval:1s}") Duration lagCheckInterval) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            String name = "replica-" + replicas.size();
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(name);
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(properties.determineUsername());
+            replica.setPassword(properties.determinePassword());
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+        ReplicaSet replicaSet = new ReplicaSet(primary, replicas, maxLag);
+        Gauge.builder("book.read-replicas.healthy", replicaSet, set -> set.healthy().size())
+                .description("Read replicas within the lag tolerance")
+                .register(registry);
+        replicaSet.start(lagCheckInterval);
+        return replicaSet;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary, ReplicaSet replicaSet,
+                                 CatalogVersion catalogVersion,
+                                 @Value("${book.read-replicas.max-lag:2s}") Duration maxLag,
+                                 @Value("${book.read-replicas.primary-after-write:false}") boolean primaryAfterWrite) {
+        BooleanSupplier writtenRecently = primaryAfterWrite ? () -> catalogVersion.bumpedWithin(maxLag) : () -> false;
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicaSet, writtenRecently));
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(@Value("${book.read-replicas.sticky-window:5s}") Duration stickyWindow) {
+        return new ReadYourWritesFilter(stickyWindow, CATALOG_PATH);
+    }
+
+    /**
+     * Carries the routing of the request thread over to the application task executor, which
+     * writes streamed responses such as the catalog export.
+     */
+    @Bean
+    public TaskDecorator replicaRoutingTaskDecorator() {
+        return task -> {
+            boolean primaryOnly = ReplicaRouting.isPrimaryOnly();
+            return () -> {
+                try (ReplicaRouting.Scope routing = ReplicaRouting.primaryOnly(primaryOnly)) {
+                    task.run();
+                }
+            };
+        };
+    }
+}
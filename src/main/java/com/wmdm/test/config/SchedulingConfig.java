@@ -0,0 +1,11 @@
+package com.wmdm.test.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "loan.overdue-scan.enabled", havingValue = "true")
+public class SchedulingConfig {
+}
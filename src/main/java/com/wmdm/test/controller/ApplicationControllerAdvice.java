@@ -2,6 +2,8 @@ package com.wmdm.test.controller;
 
 import com.wmdm.test.api.exceptions.ApiErrors;
 import com.wmdm.test.api.exceptions.BusinessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -27,10 +29,22 @@ public class ApplicationControllerAdvice {
         return new ApiErrors(ex);
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ApiErrors handleOptimisticLockingFailure(OptimisticLockingFailureException ex){
+        return new ApiErrors(new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Book was modified"));
+    }
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ApiErrors handleQueryTimeout(QueryTimeoutException ex){
+        return new ApiErrors(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Request timed out, retry later"));
+    }
+
     @ExceptionHandler(ResponseStatusException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ResponseEntity handlerResponseStatusException(ResponseStatusException ex){
-        return new ResponseEntity(new ApiErrors(ex), ex.getStatus());
+        return new ResponseEntity(new ApiErrors(ex), ex.getStatusCode());
     }
 
 }
@@ -1,77 +1,436 @@
 package com.wmdm.test.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.wmdm.test.DTOs.BookBatchResultDTO;
 import com.wmdm.test.DTOs.BookDTO;
+import com.wmdm.test.DTOs.BookImportProgressDTO;
+import com.wmdm.test.DTOs.CursorPageDTO;
+import com.wmdm.test.DTOs.mapper.BookMapper;
 import com.wmdm.test.api.exceptions.ApiErrors;
 import com.wmdm.test.api.exceptions.BusinessException;
+import com.wmdm.test.api.http.ETags;
+import com.wmdm.test.api.http.StreamingTimeout;
+import com.wmdm.test.api.io.BookCsv;
+import com.wmdm.test.api.io.BookRecordReader;
+import com.wmdm.test.api.pagination.BookCursor;
+import com.wmdm.test.api.pagination.CountedPage;
 import com.wmdm.test.model.entity.Book;
 import com.wmdm.test.service.BookService;
-import org.modelmapper.ModelMapper;
+import com.wmdm.test.service.writebehind.BookCreateQueue;
+import com.wmdm.test.service.writebehind.BookCreateTimeoutException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.validation.Valid;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
 
+    static final int IMPORT_CHUNK_SIZE = 500;
+    static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
     @Autowired
     BookService bookService;
     @Autowired
-    ModelMapper modelMapper;
+    Validator validator;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired(required = false)
+    BookCreateQueue createQueue;
+    @Value("${book.import.max-record-length:" + BookRecordReader.DEFAULT_MAX_RECORD_LENGTH + "}")
+    int maxImportRecordLength;
+    @Value("${book.import.timeout:1h}")
+    Duration importTimeout;
+    @Value("${book.export.timeout:1h}")
+    Duration exportTimeout;
 
+    /**
+     * With write-behind enabled the book joins the next group commit; a full queue or a
+     * flush that does not complete in time is answered 503 rather than holding the request.
+     */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public BookDTO create(@RequestBody @Valid BookDTO dto) {
 
-        Book book = modelMapper.map(dto, Book.class);
-        Book entity = bookService.save(book);
-        return modelMapper.map(entity, BookDTO.class);
+        Book book = BookMapper.toEntity(dto);
+        Book entity;
+        if (createQueue == null) {
+            entity = bookService.save(book);
+        } else {
+            try {
+                entity = createQueue.save(book);
+            } catch (RejectedExecutionException e) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many pending creates, retry later");
+            } catch (BookCreateTimeoutException e) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Book create timed out, retry later");
+            }
+        }
+        return BookMapper.toDTO(entity);
+    }
+
+    @PostMapping("batch")
+    public List<BookBatchResultDTO> createBatch(@RequestBody List<BookDTO> dtos) {
+        List<BookBatchResultDTO> results = new ArrayList<>(dtos.size());
+        List<Long> indexes = new ArrayList<>(dtos.size());
+        List<BookDTO> valid = new ArrayList<>(dtos.size());
+        for (int index = 0; index < dtos.size(); index++) {
+            BookDTO dto = dtos.get(index);
+            List<String> errors = validate(dto);
+            if (errors.isEmpty()) {
+                indexes.add((long) index);
+                valid.add(dto);
+                results.add(null);
+            } else {
+                results.add(invalid(index, dto, errors));
+            }
+        }
+        for (BookBatchResultDTO result : saveValid(indexes, valid)) {
+            results.set((int) result.getIndex(), result);
+        }
+        return results;
+    }
+
+    /**
+     * Streams an NDJSON or CSV upload into the catalog in chunks of {@link #IMPORT_CHUNK_SIZE}
+     * records, each chunk committed through the batch save. The response is NDJSON: a
+     * {@link BookBatchResultDTO} for every invalid or duplicate record, and a
+     * {@link BookImportProgressDTO} after every chunk, the last one marked done. The stream
+     * runs under {@code book.import.timeout} instead of the default async timeout, which
+     * would cut a large upload off part way.
+     */
+    @PostMapping(value = "import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importNdjson(InputStream body, WebRequest request){
+        StreamingTimeout.set(request, importTimeout);
+        BookRecordReader reader = BookRecordReader.ndjson(new InputStreamReader(body, StandardCharsets.UTF_8), objectMapper,
+                maxImportRecordLength);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(out -> importRecords(reader, out));
+    }
+
+    @PostMapping(value = "import", consumes = "text/csv")
+    public ResponseEntity<StreamingResponseBody> importCsv(InputStream body, WebRequest request) throws IOException {
+        StreamingTimeout.set(request, importTimeout);
+        BookRecordReader reader;
+        try {
+            reader = BookRecordReader.csv(new InputStreamReader(body, StandardCharsets.UTF_8), maxImportRecordLength);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(out -> importRecords(reader, out));
+    }
+
+    private void importRecords(BookRecordReader reader, OutputStream out) throws IOException {
+        BookImportProgressDTO progress = new BookImportProgressDTO();
+        List<Long> numbers = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        List<BookDTO> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        for (BookRecordReader.Record record = reader.next(); record != null; record = reader.next()) {
+            progress.setRecords(progress.getRecords() + 1);
+            List<String> errors = record.getError() == null
+                    ? validate(record.getBook())
+                    : Collections.singletonList(record.getError());
+            if (!errors.isEmpty()) {
+                progress.setInvalid(progress.getInvalid() + 1);
+                writeEvent(out, invalid(record.getNumber(), record.getBook(), errors));
+                continue;
+            }
+            numbers.add(record.getNumber());
+            chunk.add(record.getBook());
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                importChunk(numbers, chunk, progress, out);
+            }
+        }
+        importChunk(numbers, chunk, progress, out);
+        progress.setDone(true);
+        writeEvent(out, progress);
+        out.flush();
+    }
+
+    private void importChunk(List<Long> numbers, List<BookDTO> chunk, BookImportProgressDTO progress,
+                             OutputStream out) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        for (BookBatchResultDTO result : saveValid(numbers, chunk)) {
+            if (result.getStatus() == BookBatchResultDTO.Status.CREATED) {
+                progress.setCreated(progress.getCreated() + 1);
+            } else {
+                progress.setDuplicates(progress.getDuplicates() + 1);
+                writeEvent(out, result);
+            }
+        }
+        numbers.clear();
+        chunk.clear();
+        writeEvent(out, progress);
+        out.flush();
+    }
+
+    private void writeEvent(OutputStream out, Object event) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(event));
+        out.write('\n');
+    }
+
+    private List<String> validate(BookDTO dto) {
+        Set<ConstraintViolation<BookDTO>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).collect(Collectors.toList());
+    }
+
+    private static BookBatchResultDTO invalid(long index, BookDTO dto, List<String> errors) {
+        return BookBatchResultDTO.builder()
+                .index(index)
+                .isbn(dto == null ? null : dto.getIsbn())
+                .status(BookBatchResultDTO.Status.INVALID)
+                .errors(errors)
+                .build();
+    }
+
+    /**
+     * Saves already validated books in one batch and reports each one, under the matching
+     * entry of {@code indexes}, as created or as a duplicate ISBN.
+     */
+    private List<BookBatchResultDTO> saveValid(List<Long> indexes, List<BookDTO> dtos) {
+        List<Book> books = new ArrayList<>(dtos.size());
+        for (BookDTO dto : dtos) {
+            books.add(BookMapper.toEntity(dto));
+        }
+        Map<String, Book> savedByIsbn = bookService.saveAll(books)
+                .stream()
+                .collect(Collectors.toMap(Book::getIsbn, Function.identity()));
+        List<BookBatchResultDTO> results = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            String isbn = dtos.get(i).getIsbn();
+            Book saved = savedByIsbn.remove(isbn);
+            results.add(BookBatchResultDTO.builder()
+                    .index(indexes.get(i))
+                    .isbn(isbn)
+                    .id(saved == null ? null : saved.getId())
+                    .status(saved == null ? BookBatchResultDTO.Status.DUPLICATE : BookBatchResultDTO.Status.CREATED)
+                    .errors(saved == null ? Collections.singletonList("Isbn already registered") : null)
+                    .build());
+        }
+        return results;
     }
 
+    /**
+     * Tags the book with its version. A request whose {@code If-None-Match} still holds is
+     * answered 304 from a version-only query, without loading the book.
+     */
     @GetMapping("{id}")
-    public BookDTO get(@PathVariable Long id){
-        return this.bookService.getById(id)
-                               .map(book -> modelMapper.map(book, BookDTO.class))
-                               .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    public ResponseEntity<BookDTO> get(@PathVariable Long id, WebRequest request){
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Long version = this.bookService.getVersion(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+            if (request.checkNotModified(ETags.of(version))) {
+                return null;
+            }
+        }
+        Book book = this.bookService.getById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        return ResponseEntity.ok().eTag(ETags.of(book.getVersion())).body(BookMapper.toDTO(book));
     }
 
     @DeleteMapping("{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void delete(@PathVariable Long id){
-        Book book = this.bookService.getById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-        this.bookService.delete(book);
+        if (!this.bookService.deleteById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Changes the fields present in the body with one update statement and answers 204
+     * without reading the book back. {@code If-Match} restricts the update to that version.
+     */
+    @PatchMapping("{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void patch(@PathVariable Long id, @RequestBody BookDTO dto,
+                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (dto.getTitle() == null && dto.getAuthor() == null && dto.getIsbn() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Nothing to update");
+        }
+        if (isBlank(dto.getTitle()) || isBlank(dto.getAuthor()) || isBlank(dto.getIsbn())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Fields must not be empty");
+        }
+        Long version = ifMatch == null ? null : matchedVersion(id, ETags.versions(ifMatch));
+        if (bookService.patch(id, BookMapper.toEntity(dto), version)) {
+            return;
+        }
+        if (version != null && bookService.getVersion(id).isPresent()) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Book was modified");
+        }
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * The version a conditional patch applies to: {@code null} for {@code *}, the listed one
+     * when there is one, else the current version when it is listed.
+     */
+    private Long matchedVersion(Long id, Set<Long> versions) {
+        if (versions == null) {
+            return null;
+        }
+        if (versions.size() == 1) {
+            return versions.iterator().next();
+        }
+        Long current = bookService.getVersion(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (!versions.contains(current)) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Book was modified");
+        }
+        return current;
+    }
+
+    private static boolean isBlank(String value) {
+        return value != null && value.trim().isEmpty();
+    }
+
+    /**
+     * With {@code If-Match} the update only applies to the tagged version of the book; a
+     * stale tag, or a concurrent update between the check and the write, gives 412.
+     */
     @PutMapping("{id}")
-    public BookDTO update(@PathVariable Long id, @RequestBody BookDTO dto) {
+    public ResponseEntity<BookDTO> update(@PathVariable Long id, @RequestBody BookDTO dto,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
        return bookService.getById(id).map(book -> {
+           if (ifMatch != null && !ETags.matches(ifMatch, book.getVersion())) {
+               throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Book was modified");
+           }
            book.setAuthor(dto.getAuthor());
            book.setTitle(dto.getTitle());
            book.setIsbn(dto.getIsbn());
            book = bookService.update(book);
-           return modelMapper.map(book, BookDTO.class);
+           return ResponseEntity.ok().eTag(ETags.of(book.getVersion())).body(BookMapper.toDTO(book));
         }).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * With {@code approximate=true} the total may be an estimate, flagged by
+     * {@code totalApproximate}, so the search does not wait for a count.
+     */
     @GetMapping
-    public Page<BookDTO> find(BookDTO dto, Pageable pageRequest){
-        Book filter = modelMapper.map(dto, Book.class);
-        Page<Book> result = bookService.find(filter, pageRequest);
+    public ResponseEntity<Page<BookDTO>> find(BookDTO dto, Pageable pageRequest,
+                                              @RequestParam(defaultValue = "false") boolean approximate,
+                                              WebRequest request){
+        Book filter = BookMapper.toEntity(dto);
+        Page<Book> result = bookService.find(filter, pageRequest, approximate);
+        String etag = ETags.of(result);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         List<BookDTO> list = result.getContent()
                 .stream()
-                .map(entity -> modelMapper.map(entity, BookDTO.class))
+                .map(entity -> BookMapper.toDTO(entity))
                 .collect(Collectors.toList());
-        return new PageImpl<BookDTO>(list, pageRequest, result.getTotalElements());
+        boolean totalApproximate = result instanceof CountedPage && ((CountedPage<Book>) result).isTotalApproximate();
+        return ResponseEntity.ok().eTag(etag).body(new CountedPage<>(list, pageRequest, result.getTotalElements(), totalApproximate));
+    }
+
+    @GetMapping(params = "cursor")
+    public CursorPageDTO<BookDTO> findByCursor(BookDTO dto, @RequestParam String cursor, Pageable pageRequest){
+        Book filter = BookMapper.toEntity(dto);
+        BookCursor position = cursor.isEmpty()
+                ? BookCursor.first(pageRequest.getSort(), filter)
+                : BookCursor.decode(cursor, filter);
+        Slice<Book> result = bookService.findAfter(filter, position.getOrder(),
+                position.getLast(), pageRequest.getPageSize());
+        List<Book> content = result.getContent();
+        return CursorPageDTO.<BookDTO>builder()
+                .content(BookMapper.toDTOs(content))
+                .size(pageRequest.getPageSize())
+                .nextCursor(result.hasNext() ? position.next(content.get(content.size() - 1)) : null)
+                .build();
+    }
+
+    /**
+     * Streams the whole catalog as NDJSON or CSV. The stream runs under
+     * {@code book.export.timeout} instead of the default async timeout, which would cut a
+     * large catalog off part way.
+     */
+    @GetMapping("export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format,
+                                                        WebRequest request){
+        StreamingTimeout.set(request, exportTimeout);
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(this::exportNdjson);
+        }
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok().contentType(TEXT_CSV).body(this::exportCsv);
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+    }
+
+    private void exportNdjson(OutputStream out) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out);
+        SequenceWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(buffered);
+        AtomicLong written = new AtomicLong();
+        bookService.forEachBook(book -> {
+            try {
+                writer.write(BookMapper.toDTO(book));
+                written.incrementAndGet();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.close();
+        if (written.get() > 0) {
+            buffered.write('\n');
+        }
+        buffered.flush();
+    }
+
+    private void exportCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        BookCsv.writeHeader(writer);
+        bookService.forEachBook(book -> {
+            try {
+                BookCsv.write(writer, BookMapper.toDTO(book));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
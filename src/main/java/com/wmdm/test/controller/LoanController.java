@@ -1,40 +1,120 @@
 package com.wmdm.test.controller;
 
+import com.wmdm.test.DTOs.LoanBatchResultDTO;
 import com.wmdm.test.DTOs.LoanDTO;
+import com.wmdm.test.DTOs.mapper.LoanMapper;
 import com.wmdm.test.model.entity.Book;
 import com.wmdm.test.model.entity.Loan;
 import com.wmdm.test.service.BookService;
 import com.wmdm.test.service.LoanService;
-import com.wmdm.test.service.imp.LoanServiceImp;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 
 @RestController
 @RequestMapping("/api/loan")
 public class LoanController {
     @Autowired
-    LoanService loanService = new LoanServiceImp();
+    LoanService loanService;
 
     @Autowired
     private BookService bookService;
 
-    @Autowired
-    private ModelMapper modelMapper;
-
     @PostMapping()
     public LoanDTO save(@RequestBody LoanDTO loanDTO){
         Book book = bookService.getBookByIsbn(loanDTO.getIsbn()).orElseThrow(() ->
                 new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book not found for passed isbn"));
-        Loan loanToPersist = modelMapper.map(loanDTO, Loan.class);
+        Loan loanToPersist = LoanMapper.toEntity(loanDTO);
+        loanToPersist.setIsbn(book.getIsbn());
         Loan entity = loanService.save(loanToPersist);
-        return modelMapper.map(entity, LoanDTO.class);
+        return LoanMapper.toDTO(entity);
+    }
+
+    /**
+     * Checks out a burst of loans, resolving every ISBN with one query and saving all loans
+     * in one batch. Each entry of the response reports, under the index of its request, the
+     * created loan or the errors that kept it from being checked out.
+     */
+    @PostMapping("batch")
+    public List<LoanBatchResultDTO> saveBatch(@RequestBody List<LoanDTO> dtos) {
+        Set<String> isbns = dtos.stream()
+                .map(LoanDTO::getIsbn)
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .collect(Collectors.toSet());
+        Map<String, Book> books = bookService.findByIsbns(isbns).stream()
+                .collect(Collectors.toMap(Book::getIsbn, Function.identity()));
+
+        List<LoanBatchResultDTO> results = new ArrayList<>(dtos.size());
+        List<Integer> indexes = new ArrayList<>(dtos.size());
+        List<Loan> loans = new ArrayList<>(dtos.size());
+        for (int index = 0; index < dtos.size(); index++) {
+            LoanDTO dto = dtos.get(index);
+            Book book = dto.getIsbn() == null ? null : books.get(dto.getIsbn().trim());
+            if (book == null) {
+                results.add(failed(index, LoanBatchResultDTO.Status.BOOK_NOT_FOUND, dto.getIsbn(),
+                        "Book not found for passed isbn"));
+                continue;
+            }
+            Loan loan = LoanMapper.toEntity(dto);
+            loan.setIsbn(book.getIsbn());
+            indexes.add(index);
+            loans.add(loan);
+            results.add(null);
+        }
+
+        Map<String, Loan> saved = new HashMap<>();
+        for (Loan loan : loanService.saveAll(loans)) {
+            saved.put(loan.getIsbn(), loan);
+        }
+        for (int i = 0; i < loans.size(); i++) {
+            int index = indexes.get(i);
+            Loan loan = saved.remove(loans.get(i).getIsbn());
+            results.set(index, loan == null
+                    ? failed(index, LoanBatchResultDTO.Status.ALREADY_LOANED, loans.get(i).getIsbn(), "Book already loaned")
+                    : LoanBatchResultDTO.builder()
+                        .index(index)
+                        .status(LoanBatchResultDTO.Status.LOANED)
+                        .id(loan.getId())
+                        .isbn(loan.getIsbn())
+                        .build());
+        }
+        return results;
+    }
+
+    private static LoanBatchResultDTO failed(int index, LoanBatchResultDTO.Status status, String isbn, String error) {
+        return LoanBatchResultDTO.builder()
+                .index(index)
+                .status(status)
+                .isbn(isbn)
+                .errors(Collections.singletonList(error))
+                .build();
+    }
+
+    @PutMapping("{id}/return")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void returnBook(@PathVariable Long id){
+        if (!loanService.returnBook(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Active loan not found");
+        }
     }
 
 
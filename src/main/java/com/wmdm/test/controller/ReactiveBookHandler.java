@@ -0,0 +1,91 @@
+package com.wmdm.test.controller;
+
+import com.wmdm.test.DTOs.BookDTO;
+import com.wmdm.test.DTOs.mapper.BookMapper;
+import com.wmdm.test.api.exceptions.ApiErrors;
+import com.wmdm.test.api.http.ETags;
+import com.wmdm.test.model.entity.Book;
+import com.wmdm.test.model.repository.ReactiveBookRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variants of {@code GET /api/books} and {@code GET /api/books/{id}}, served by
+ * the reactive catalog server next to the servlet {@link BookController}, which keeps the writes.
+ *
+ * <p>Search results stream in id order as they are read, as a JSON array or, for clients
+ * accepting {@code application/x-ndjson}, one book per line. Without {@code size} every match
+ * is streamed; the rate is set by how fast the client reads.
+ */
+public class ReactiveBookHandler {
+
+    private final ReactiveBookRepository repository;
+
+    public ReactiveBookHandler(ReactiveBookRepository repository) {
+        this.repository = repository;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        // deferred so that request validation failures reach the error handler as signals
+        return RouterFunctions.route()
+                .GET("/api/books/{id}", request -> Mono.defer(() -> get(request)))
+                .GET("/api/books", request -> Mono.defer(() -> find(request)))
+                .onError(ResponseStatusException.class, (ex, request) -> ServerResponse.status(ex.getStatusCode())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(new ApiErrors(ex)))
+                .build();
+    }
+
+    public Mono<ServerResponse> get(ServerRequest request) {
+        Long id = parseLong(request.pathVariable("id"), "Invalid book id");
+        return repository.findById(id)
+                .flatMap(book -> ServerResponse.ok()
+                        .eTag(ETags.of(book.getVersion()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(BookMapper.toDTO(book)))
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found")));
+    }
+
+    public Mono<ServerResponse> find(ServerRequest request) {
+        Book filter = Book.builder()
+                .title(request.queryParam("title").orElse(null))
+                .author(request.queryParam("author").orElse(null))
+                .isbn(request.queryParam("isbn").orElse(null))
+                .build();
+        Integer size = request.queryParam("size").map(value -> parseInt(value, "Invalid page size")).orElse(null);
+        int page = request.queryParam("page").map(value -> parseInt(value, "Invalid page number")).orElse(0);
+        if (page < 0 || (size != null && size < 1)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page request");
+        }
+        long offset = size == null ? 0 : (long) page * size;
+
+        Flux<BookDTO> books = repository.findAll(filter, offset, size).map(BookMapper::toDTO);
+        MediaType type = MediaType.APPLICATION_NDJSON.isPresentIn(request.headers().accept())
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok().contentType(type).body(books, BookDTO.class);
+    }
+
+    private static long parseLong(String value, String reason) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, reason);
+        }
+    }
+
+    private static int parseInt(String value, String reason) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, reason);
+        }
+    }
+}
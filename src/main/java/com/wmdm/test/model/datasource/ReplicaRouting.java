@@ -0,0 +1,71 @@
+package com.wmdm.test.model.datasource;
+
+/**
+ * Marks the work of the current thread as needing the primary, even for read-only
+ * transactions, for callers that must read their own writes, and tells whether a read of
+ * the thread went to a replica.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> ON_REPLICA = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static boolean isPrimaryOnly() {
+        return Boolean.TRUE.equals(PRIMARY_ONLY.get());
+    }
+
+    /**
+     * Starts a read whose routing {@link #readFromReplica()} then tells.
+     */
+    public static void startRead() {
+        ON_REPLICA.remove();
+    }
+
+    /**
+     * Whether the current thread opened a connection to a replica, which may not have the
+     * latest writes yet, since its last {@link #startRead()}.
+     */
+    public static boolean readFromReplica() {
+        return Boolean.TRUE.equals(ON_REPLICA.get());
+    }
+
+    static void connectedToReplica() {
+        ON_REPLICA.set(Boolean.TRUE);
+    }
+
+    /**
+     * Routes every connection the current thread opens to the primary until the returned
+     * scope is closed.
+     */
+    public static Scope primaryOnly() {
+        return primaryOnly(true);
+    }
+
+    /**
+     * Applies a routing read with {@link #isPrimaryOnly()} on another thread, to the thread
+     * that carries on its work, until the returned scope is closed.
+     */
+    public static Scope primaryOnly(boolean primaryOnly) {
+        Boolean previous = PRIMARY_ONLY.get();
+        if (primaryOnly) {
+            PRIMARY_ONLY.set(Boolean.TRUE);
+        } else {
+            PRIMARY_ONLY.remove();
+        }
+        return () -> {
+            if (previous == null) {
+                PRIMARY_ONLY.remove();
+            } else {
+                PRIMARY_ONLY.set(previous);
+            }
+        };
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
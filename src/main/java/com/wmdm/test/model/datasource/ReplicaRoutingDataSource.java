@@ -0,0 +1,81 @@
+package com.wmdm.test.model.datasource;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Sends the connections of read-only transactions to a replica within the lag tolerance and
+ * everything else to the primary. The primary also serves reads while the current thread is
+ * {@linkplain ReplicaRouting#primaryOnly() primary only}, while no replica is caught up, and
+ * while {@code writtenRecently} holds. A connection to a replica is recorded on its thread,
+ * so that callers can tell a result that may miss recent writes, and the transaction only
+ * reads the second level cache: an entity it put there from a replica would be served to
+ * every later reader, primary ones included, until evicted.
+ *
+ * <p>The transaction is only known to be read-only once it has started, so this data source
+ * must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * that opens the connection at the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaSet replicas;
+    private final BooleanSupplier writtenRecently;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaSet replicas, BooleanSupplier writtenRecently) {
+        this.replicas = replicas;
+        this.writtenRecently = writtenRecently;
+        Map<Object, Object> targets = new HashMap<>(replicas.getReplicas());
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Name of the replica the next connection goes to, {@code null} for the primary.
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String replica = null;
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReplicaRouting.isPrimaryOnly()
+                && !writtenRecently.getAsBoolean()) {
+            replica = replicas.next();
+        }
+        if (replica != null) {
+            ReplicaRouting.connectedToReplica();
+            readSecondLevelCacheOnly();
+        }
+        return replica;
+    }
+
+    private static void readSecondLevelCacheOnly() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder) {
+                Session session = ((EntityManagerHolder) resource).getEntityManager().unwrap(Session.class);
+                CacheMode previous = session.getCacheMode();
+                session.setCacheMode(CacheMode.GET);
+                // the session outlives the transaction when it is open in the view
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (session.isOpen()) {
+                            session.setCacheMode(previous);
+                        }
+                    }
+                });
+            }
+        }
+    }
+}
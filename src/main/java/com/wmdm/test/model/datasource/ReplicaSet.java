@@ -0,0 +1,171 @@
+package com.wmdm.test.model.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read replicas of the primary database and their replication lag. Each check compares the
+ * heartbeat row of every replica with the one on the primary, then writes the current time
+ * to the primary's row for the next check: the difference is how far behind the replica is.
+ * As the primary's beat is one check old, a replica can be up to one check interval further
+ * behind than measured, so the interval should be well under {@code maxLag}. Replicas more
+ * than {@code maxLag} behind, or that cannot be read, are left out until a later check finds
+ * them caught up.
+ */
+@Slf4j
+public class ReplicaSet implements AutoCloseable {
+
+    static final String HEARTBEAT_TABLE = "replica_heartbeat";
+    static final int HEARTBEAT_ID = 1;
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> healthy = Collections.emptyList();
+    private volatile boolean heartbeatTable;
+    private ScheduledExecutorService checker;
+
+    public ReplicaSet(DataSource primary, Map<String, DataSource> replicas, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableMap(new LinkedHashMap<>(replicas));
+        this.maxLagMillis = maxLag.toMillis();
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Checks the replicas now and then every {@code interval} on a daemon thread.
+     */
+    public synchronized void start(Duration interval) {
+        if (checker != null) {
+            return;
+        }
+        checker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::check, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Replica for the next read, taking turns among those within the lag tolerance, or
+     * {@code null} when none is.
+     */
+    public String next() {
+        List<String> candidates = healthy;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    public List<String> healthy() {
+        return healthy;
+    }
+
+    public void check() {
+        List<String> caughtUp = new ArrayList<>(replicas.size());
+        try {
+            long primaryBeat = lastBeat(primary);
+            replicas.forEach((name, replica) -> {
+                try {
+                    long lag = primaryBeat - lastBeat(replica);
+                    if (lag <= maxLagMillis) {
+                        caughtUp.add(name);
+                    } else {
+                        log.debug("Replica {} is {} ms behind the primary", name, lag);
+                    }
+                } catch (SQLException e) {
+                    log.warn("Could not read the replication heartbeat of replica {}: {}", name, e.getMessage());
+                }
+            });
+        } catch (SQLException e) {
+            log.debug("Could not read the replication heartbeat of the primary: {}", e.getMessage());
+        }
+        healthy = Collections.unmodifiableList(caughtUp);
+        try {
+            beat(System.currentTimeMillis());
+        } catch (SQLException e) {
+            log.warn("Could not write the replication heartbeat to the primary", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) replica).close();
+                } catch (Exception e) {
+                    log.warn("Could not close a replica pool", e);
+                }
+            }
+        }
+    }
+
+    private void beat(long now) throws SQLException {
+        try (Connection connection = primary.getConnection()) {
+            if (!heartbeatTable) {
+                try (Statement create = connection.createStatement()) {
+                    create.execute("create table if not exists " + HEARTBEAT_TABLE + " (id int primary key, beat bigint not null)");
+                }
+                heartbeatTable = true;
+            }
+            int updated;
+            try (PreparedStatement update = connection.prepareStatement(
+                    "update " + HEARTBEAT_TABLE + " set beat = ? where id = ?")) {
+                update.setLong(1, now);
+                update.setInt(2, HEARTBEAT_ID);
+                updated = update.executeUpdate();
+            }
+            if (updated == 0) {
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "insert into " + HEARTBEAT_TABLE + " (id, beat) values (?, ?)")) {
+                    insert.setInt(1, HEARTBEAT_ID);
+                    insert.setLong(2, now);
+                    insert.executeUpdate();
+                }
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        }
+    }
+
+    private static long lastBeat(DataSource replica) throws SQLException {
+        try (Connection connection = replica.getConnection();
+             PreparedStatement query = connection.prepareStatement(
+                     "select beat from " + HEARTBEAT_TABLE + " where id = ?")) {
+            query.setInt(1, HEARTBEAT_ID);
+            try (ResultSet result = query.executeQuery()) {
+                if (!result.next()) {
+                    throw new SQLException("No replication heartbeat yet");
+                }
+                return result.getLong(1);
+            }
+        }
+    }
+}
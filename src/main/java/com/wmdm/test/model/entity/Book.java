@@ -4,21 +4,46 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
-import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
-import javax.persistence.Id;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = Book.ISBN_UNIQUE_CONSTRAINT, columnNames = "isbn"),
+        indexes = {
+                @Index(name = "idx_book_title_id", columnList = "title, id"),
+                @Index(name = "idx_book_author_id", columnList = "author, id")
+        })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Book.CACHE_REGION)
+@NaturalIdCache(region = Book.ISBN_CACHE_REGION)
 public class Book {
+    public static final String ISBN_UNIQUE_CONSTRAINT = "uk_book_isbn";
+    public static final String CACHE_REGION = "book";
+    public static final String ISBN_CACHE_REGION = "book-isbn";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_sequence")
+    @SequenceGenerator(name = "book_sequence", sequenceName = "book_sequence", allocationSize = 50)
     private Long id;
     private String title;
     private String author;
+    @NaturalId(mutable = true)
     private String isbn;
+    @Version
+    private Long version;
 }
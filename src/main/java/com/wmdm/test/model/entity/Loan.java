@@ -6,14 +6,44 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDate;
+
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = Loan.ACTIVE_ISBN_UNIQUE_CONSTRAINT, columnNames = "activeIsbn"),
+        indexes = {
+                @Index(name = "idx_loan_isbn", columnList = "isbn"),
+                @Index(name = "idx_loan_custumer", columnList = "custumer"),
+                @Index(name = "idx_loan_due_date_id", columnList = "dueDate, id")
+        })
 public class Loan {
+    public static final String ACTIVE_ISBN_UNIQUE_CONSTRAINT = "uk_loan_active_isbn";
+    public static final int LOAN_PERIOD_DAYS = 14;
 
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_sequence")
+    @SequenceGenerator(name = "loan_sequence", sequenceName = "loan_sequence", allocationSize = 50)
     private Long id;
     private String isbn;
     private String custumer;
+    private LocalDate loanDate;
+    private LocalDate dueDate;
+    private boolean returned;
+    /**
+     * The ISBN while the loan is active and {@code null} once returned; its unique index
+     * allows at most one active loan per book.
+     */
+    private String activeIsbn;
 
 }
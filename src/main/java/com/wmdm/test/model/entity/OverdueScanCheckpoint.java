@@ -0,0 +1,27 @@
+package com.wmdm.test.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import java.time.LocalDate;
+
+/**
+ * High-water mark of the overdue scanner: the (due date, id) of the last loan it reported.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class OverdueScanCheckpoint {
+
+    @Id
+    private String name;
+    private LocalDate dueDate;
+    private Long loanId;
+
+}
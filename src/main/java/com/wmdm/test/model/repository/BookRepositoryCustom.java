@@ -0,0 +1,43 @@
+package com.wmdm.test.model.repository;
+
+import com.wmdm.test.model.entity.Book;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface BookRepositoryCustom {
+
+    /**
+     * Seeks past {@code last} on {@code (order property, id)} instead of skipping rows with
+     * an offset, so every page costs the same. {@code last} only needs the id and the sort
+     * property; {@code null} starts at the first row. No count query is issued.
+     */
+    List<Book> findAllAfter(Example<Book> example, Sort.Order order, Book last, int limit);
+
+    /**
+     * Content of one page of the books matching {@code spec}, without the count query that
+     * {@code findAll(spec, pageable)} issues for the total.
+     */
+    List<Book> findContent(Specification<Book> spec, Pageable pageable);
+
+    /**
+     * Changes the non-null fields of one book in a single statement, only while it still has
+     * {@code version} unless that is {@code null}. Returns the number of rows changed.
+     */
+    int patch(Long id, String title, String author, String isbn, Long version);
+
+    /**
+     * Deletes one book in a single statement. Returns the number of rows deleted.
+     */
+    int deleteBookById(Long id);
+
+    /**
+     * Loads the book through its natural id, so the lookup is answered by the second-level
+     * cache regions of {@link Book} when they hold it.
+     */
+    Optional<Book> findByNaturalId(String isbn);
+}
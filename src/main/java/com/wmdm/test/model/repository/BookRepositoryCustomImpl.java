@@ -0,0 +1,183 @@
+package com.wmdm.test.model.repository;
+
+import com.wmdm.test.model.entity.Book;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.convert.QueryByExamplePredicateBuilder;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    static final String BULK_WRITE_SPACE = "book_bulk_write";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Books without a sort key come before every other book in ascending order and after
+     * them in descending order, so a null key seeks like the smallest value.
+     */
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<Book> findAllAfter(Example<Book> example, Sort.Order order, Book last, int limit) {
+        HibernateCriteriaBuilder cb = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        Path<Comparable> key = root.get(order.getProperty());
+        Path<Long> id = root.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filter = QueryByExamplePredicateBuilder.getPredicate(root, cb, example);
+        if (filter != null) {
+            predicates.add(filter);
+        }
+        if (last != null) {
+            if ("id".equals(order.getProperty())) {
+                predicates.add(order.isAscending() ? cb.greaterThan(id, last.getId()) : cb.lessThan(id, last.getId()));
+            } else {
+                Comparable lastKey = (Comparable) new BeanWrapperImpl(last).getPropertyValue(order.getProperty());
+                Predicate afterId = order.isAscending() ? cb.greaterThan(id, last.getId()) : cb.lessThan(id, last.getId());
+                if (lastKey == null) {
+                    Predicate sameKey = cb.and(cb.isNull(key), afterId);
+                    predicates.add(order.isAscending() ? cb.or(cb.isNotNull(key), sameKey) : sameKey);
+                } else {
+                    Predicate afterKey = cb.or(
+                            order.isAscending() ? cb.greaterThan(key, lastKey) : cb.lessThan(key, lastKey),
+                            cb.and(cb.equal(key, lastKey), afterId));
+                    predicates.add(order.isAscending() ? afterKey : cb.or(afterKey, cb.isNull(key)));
+                }
+            }
+        }
+
+        query.select(root)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(order.isAscending() ? cb.asc(key, true) : cb.desc(key, false),
+                        order.isAscending() ? cb.asc(id) : cb.desc(id));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<Book> findContent(Specification<Book> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        Predicate filter = spec.toPredicate(root, query, cb);
+        query.select(root);
+        if (filter != null) {
+            query.where(filter);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+        TypedQuery<Book> typed = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typed.setFirstResult(Math.toIntExact(pageable.getOffset())).setMaxResults(pageable.getPageSize());
+        }
+        return typed.getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int patch(Long id, String title, String author, String isbn, Long version) {
+        NativeQuery<?> query = nativeUpdate("update book set title = coalesce(:title, title),"
+                + " author = coalesce(:author, author), isbn = coalesce(:isbn, isbn), version = version + 1"
+                + " where id = :id" + (version == null ? "" : " and version = :version"));
+        query.setParameter("id", id)
+                .setParameter("title", title, StandardBasicTypes.STRING)
+                .setParameter("author", author, StandardBasicTypes.STRING)
+                .setParameter("isbn", isbn, StandardBasicTypes.STRING);
+        if (version != null) {
+            query.setParameter("version", version);
+        }
+        int updated = query.executeUpdate();
+        evict(id);
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int deleteBookById(Long id) {
+        int deleted = nativeUpdate("delete from book where id = :id").setParameter("id", id).executeUpdate();
+        evict(id);
+        return deleted;
+    }
+
+    /**
+     * Hibernate drops every cache region synchronized with a native statement's query spaces,
+     * and every region when it has none. The statement therefore names a space of its own, so
+     * that only the changed book is evicted. The mutation query API has no query spaces, hence
+     * a native query, which executes an update whatever its result type.
+     */
+    private NativeQuery<Object> nativeUpdate(String sql) {
+        return entityManager.unwrap(Session.class).createNativeQuery(sql, Object.class)
+                .addSynchronizedQuerySpace(BULK_WRITE_SPACE);
+    }
+
+    /**
+     * Evicts the book now and again once the transaction completes, as a concurrent reader
+     * may cache the row as it was before the commit.
+     */
+    private void evict(Long id) {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Book.class, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evictEntityData(Book.class, id);
+                }
+            });
+        }
+    }
+
+    /**
+     * A cached resolution may be stale after {@link #patch} or {@link #deleteBookById}, which
+     * do not know the ISBN they replace: when the book it resolves to does not have the ISBN,
+     * the resolution is evicted and the ISBN looked up in the table.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Book> findByNaturalId(String isbn) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Book.class);
+        NaturalIdDataAccess resolutions = persister.getNaturalIdCacheAccessStrategy();
+        Object key = resolutions.generateCacheKey(isbn, persister, session);
+        boolean cached = resolutions.get(session, key) != null;
+        Optional<Book> book = session.bySimpleNaturalId(Book.class).loadOptional(isbn);
+        if (!cached || book.filter(found -> isbn.equals(found.getIsbn())).isPresent()) {
+            return book;
+        }
+        resolutions.evict(key);
+        return entityManager.createQuery("select b from Book b where b.isbn = :isbn", Book.class)
+                .setParameter("isbn", isbn)
+                .getResultStream()
+                .findFirst();
+    }
+}
@@ -0,0 +1,37 @@
+package com.wmdm.test.model.repository;
+
+import com.wmdm.test.model.entity.Loan;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+public interface LoanRepository extends JpaRepository<Loan, Long> {
+
+    @Query("select l.activeIsbn from Loan l where l.activeIsbn in :isbns")
+    Set<String> findActiveIsbns(@Param("isbns") Collection<String> isbns);
+
+    /**
+     * Active loans due before {@code today} that come after the given (due date, id) position,
+     * in that order, walking {@code idx_loan_due_date_id}.
+     */
+    @Query("select l from Loan l where l.returned = false and l.dueDate < :today"
+            + " and (l.dueDate > :dueDate or (l.dueDate = :dueDate and l.id > :id))"
+            + " order by l.dueDate, l.id")
+    List<Loan> findOverdueAfter(@Param("today") LocalDate today, @Param("dueDate") LocalDate dueDate,
+                                @Param("id") Long id, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update Loan l set l.returned = true, l.activeIsbn = null where l.id = :id and l.returned = false")
+    int markReturned(@Param("id") Long id);
+}
@@ -0,0 +1,9 @@
+package com.wmdm.test.model.repository;
+
+import com.wmdm.test.model.entity.OverdueScanCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OverdueScanCheckpointRepository extends JpaRepository<OverdueScanCheckpoint, String> {
+}
@@ -0,0 +1,96 @@
+package com.wmdm.test.model.repository;
+
+import com.wmdm.test.model.entity.Book;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Non-blocking reads of the book table over R2DBC, for the reactive catalog endpoints. The
+ * rows are the ones {@link BookRepository} writes; the second-level cache is not consulted.
+ *
+ * <p>The connection pool is owned here rather than registered as a bean: a
+ * {@code ConnectionFactory} bean would make Spring Boot back off from configuring the JDBC
+ * {@code DataSource} that everything else uses.
+ */
+public class ReactiveBookRepository implements AutoCloseable {
+
+    private static final String COLUMNS = "select id, title, author, isbn, version from book";
+
+    private final ConnectionPool connections;
+    private final DatabaseClient client;
+
+    public ReactiveBookRepository(ConnectionPool connections) {
+        this.connections = connections;
+        this.client = DatabaseClient.create(connections);
+    }
+
+    public Mono<Book> findById(Long id) {
+        return client.sql(COLUMNS + " where id = :id")
+                .bind("id", id)
+                .map(ReactiveBookRepository::toBook)
+                .one();
+    }
+
+    /**
+     * Streams the books whose non-null filter fields contain the given values, ignoring case,
+     * in id order. A null {@code limit} streams every match.
+     */
+    public Flux<Book> findAll(Book filter, long offset, Integer limit) {
+        Map<String, String> conditions = new LinkedHashMap<>();
+        putContaining(conditions, "title", filter.getTitle());
+        putContaining(conditions, "author", filter.getAuthor());
+        putContaining(conditions, "isbn", filter.getIsbn());
+
+        StringBuilder sql = new StringBuilder(COLUMNS);
+        String separator = " where ";
+        for (String column : conditions.keySet()) {
+            sql.append(separator).append("lower(").append(column).append(") like :").append(column).append(" escape '\\'");
+            separator = " and ";
+        }
+        sql.append(" order by id");
+        if (limit != null) {
+            sql.append(" limit :limit offset :offset");
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = client.sql(sql.toString());
+        for (Map.Entry<String, String> condition : conditions.entrySet()) {
+            spec = spec.bind(condition.getKey(), condition.getValue());
+        }
+        if (limit != null) {
+            spec = spec.bind("limit", limit).bind("offset", offset);
+        }
+        return spec.map(ReactiveBookRepository::toBook).all();
+    }
+
+    private static void putContaining(Map<String, String> conditions, String column, String value) {
+        if (value != null) {
+            String escaped = value.toLowerCase(Locale.ROOT)
+                    .replace("\\", "\\\\")
+                    .replace("%", "\\%")
+                    .replace("_", "\\_");
+            conditions.put(column, "%" + escaped + "%");
+        }
+    }
+
+    private static Book toBook(Readable row) {
+        return Book.builder()
+                .id(row.get("id", Long.class))
+                .title(row.get("title", String.class))
+                .author(row.get("author", String.class))
+                .isbn(row.get("isbn", String.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+
+    @Override
+    public void close() {
+        connections.dispose();
+    }
+}
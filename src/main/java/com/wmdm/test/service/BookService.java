@@ -3,19 +3,40 @@ package com.wmdm.test.service;
 import com.wmdm.test.model.entity.Book;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookService {
     Book save(Book any);
 
+    List<Book> saveAll(List<Book> books);
+
     Optional<Book> getById(Long id);
 
+    Optional<Long> getVersion(Long id);
+
     void delete(Book book);
 
+    boolean deleteById(Long id);
+
     Book update(Book book);
 
+    boolean patch(Long id, Book changes, Long version);
+
     Page<Book> find(Book filter, Pageable pageRequest);
 
+    Page<Book> find(Book filter, Pageable pageRequest, boolean approximateTotal);
+
+    Slice<Book> findAfter(Book filter, Sort.Order order, Book last, int size);
+
     Optional<Book> getBookByIsbn(String isbn);
+
+    List<Book> findByIsbns(Collection<String> isbns);
+
+    void forEachBook(Consumer<Book> action);
 }
@@ -2,6 +2,12 @@ package com.wmdm.test.service;
 
 import com.wmdm.test.model.entity.Loan;
 
+import java.util.List;
+
 public interface LoanService {
     Loan save(Loan loan);
+
+    List<Loan> saveAll(List<Loan> loans);
+
+    boolean returnBook(Long id);
 }
@@ -0,0 +1,94 @@
+package com.wmdm.test.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.wmdm.test.model.entity.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Totals of filtered book searches, keyed by the filter as the case-insensitive search sees
+ * it and by the {@link CatalogVersion} epoch they were counted in, so that every page of a
+ * search shares one count until the next book write. The last total counted for a filter is
+ * kept apart, whatever its epoch, to serve as an estimate. Hit, miss and eviction counters
+ * are published as the {@code cache.*} metrics with {@code cache=bookCounts}.
+ */
+@Component
+public class BookCountCache implements MeterBinder {
+
+    public static final String NAME = "bookCounts";
+
+    private final Cache<EpochKey, Long> counts;
+    private final Cache<BookFilterKey, Counted> latest;
+
+    public BookCountCache() {
+        this(10_000, Duration.ofMinutes(10));
+    }
+
+    @Autowired
+    public BookCountCache(@Value("${book.count-cache.maximum-size:10000}") long maximumSize,
+                          @Value("${book.count-cache.ttl:10m}") Duration ttl) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.latest = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Total counted for the filter in the given epoch, counting it now when there is none.
+     */
+    public long get(Book filter, long epoch, LongSupplier counter) {
+        BookFilterKey filterKey = BookFilterKey.of(filter);
+        return counts.get(new EpochKey(epoch, filterKey), key -> {
+            long total = counter.getAsLong();
+            latest.asMap().merge(filterKey, new Counted(epoch, total),
+                    (previous, counted) -> previous.epoch() > counted.epoch() ? previous : counted);
+            return total;
+        });
+    }
+
+    /**
+     * Total counted for the filter in the given epoch, if any, without counting.
+     */
+    public OptionalLong cached(Book filter, long epoch) {
+        Long total = counts.getIfPresent(new EpochKey(epoch, BookFilterKey.of(filter)));
+        return total == null ? OptionalLong.empty() : OptionalLong.of(total);
+    }
+
+    /**
+     * Last total counted for the filter, possibly before the latest book writes.
+     */
+    public OptionalLong latest(Book filter) {
+        Counted counted = latest.getIfPresent(BookFilterKey.of(filter));
+        return counted == null ? OptionalLong.empty() : OptionalLong.of(counted.total());
+    }
+
+    public CacheStats stats() {
+        return counts.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, counts, NAME);
+    }
+
+    private record EpochKey(long epoch, BookFilterKey filter) {
+    }
+
+    private record Counted(long epoch, long total) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.wmdm.test.service.cache;
+
+import com.wmdm.test.model.entity.Book;
+
+import java.util.Locale;
+
+/**
+ * A book search filter as the case-insensitive search sees it, for use in cache keys.
+ */
+record BookFilterKey(String title, String author, String isbn) {
+
+    static BookFilterKey of(Book filter) {
+        return new BookFilterKey(normalize(filter.getTitle()), normalize(filter.getAuthor()), normalize(filter.getIsbn()));
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,116 @@
+package com.wmdm.test.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.wmdm.test.model.entity.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of books keyed by ISBN, sitting in front of the ISBN lookup used by every
+ * loan. Only found books are cached; hit, miss and eviction counters are published as the
+ * {@code cache.*} metrics with {@code cache=booksByIsbn}.
+ */
+@Component
+public class BookIsbnCache implements MeterBinder {
+
+    public static final String NAME = "booksByIsbn";
+
+    private final Cache<String, Book> cache;
+    // ISBN each cached book is cached under, so a write drops it without scanning the cache
+    private final Map<Long, String> isbnById = new ConcurrentHashMap<>();
+
+    public BookIsbnCache() {
+        this(10_000, Duration.ofMinutes(10));
+    }
+
+    @Autowired
+    public BookIsbnCache(@Value("${book.isbn-cache.maximum-size:10000}") long maximumSize,
+                         @Value("${book.isbn-cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .evictionListener((String isbn, Book book, RemovalCause cause) -> isbnById.remove(book.getId(), isbn))
+                .build();
+    }
+
+    /**
+     * Returns the cached instance itself, shared with every other caller; callers handing it
+     * out copy it first.
+     */
+    public Optional<Book> get(String isbn, Function<String, Optional<Book>> loader) {
+        return get(isbn, loader, () -> true);
+    }
+
+    /**
+     * As {@link #get(String, Function)}, keeping a loaded book only if {@code keep}, asked
+     * right after the load, holds.
+     */
+    public Optional<Book> get(String isbn, Function<String, Optional<Book>> loader, BooleanSupplier keep) {
+        AtomicReference<Book> unkept = new AtomicReference<>();
+        Book cached = cache.get(normalize(isbn), key -> {
+            Book book = loader.apply(key).orElse(null);
+            if (book == null) {
+                return null;
+            }
+            if (!keep.getAsBoolean()) {
+                unkept.set(book);
+                return null;
+            }
+            isbnById.put(book.getId(), key);
+            return book;
+        });
+        return Optional.ofNullable(cached != null ? cached : unkept.get());
+    }
+
+    /**
+     * Drops the book under its current ISBN and under any ISBN it was cached with before
+     * an update changed it, and returns that earlier ISBN, or null when the book was not
+     * cached by id.
+     */
+    public String invalidate(Book book) {
+        if (book.getIsbn() != null) {
+            String isbn = normalize(book.getIsbn());
+            Book cached = cache.asMap().remove(isbn);
+            if (cached != null) {
+                isbnById.remove(cached.getId(), isbn);
+            }
+        }
+        if (book.getId() != null) {
+            String cachedIsbn = isbnById.remove(book.getId());
+            if (cachedIsbn != null) {
+                cache.invalidate(cachedIsbn);
+            }
+            return cachedIsbn;
+        }
+        return null;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, NAME);
+    }
+
+    public static String normalize(String isbn) {
+        return isbn.trim();
+    }
+}
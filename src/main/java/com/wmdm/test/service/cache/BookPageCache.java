@@ -0,0 +1,82 @@
+package com.wmdm.test.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.wmdm.test.model.entity.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Result pages of book searches, keyed by the filter, the page request with its sort, and
+ * the {@link CatalogVersion} epoch they were read in: a book write moves searches to a new
+ * epoch, and the pages of older ones are left to the size bound and the ttl to evict. The
+ * size bound evicts by Caffeine's W-TinyLFU policy, which weighs how often a page was read
+ * as well as how recently, rather than least recently used first. The books of a cached page
+ * are shared by every caller that gets it and must not be modified. Hit, miss and eviction
+ * counters are published as the {@code cache.*} metrics with {@code cache=bookPages}.
+ */
+@Component
+public class BookPageCache implements MeterBinder {
+
+    public static final String NAME = "bookPages";
+
+    private final Cache<PageKey, Page<Book>> pages;
+
+    public BookPageCache() {
+        this(1_000, Duration.ofMinutes(10));
+    }
+
+    @Autowired
+    public BookPageCache(@Value("${book.page-cache.maximum-size:1000}") long maximumSize,
+                         @Value("${book.page-cache.ttl:10m}") Duration ttl) {
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Page read for the search in the given epoch, running the search now when there is none.
+     * Concurrent callers of the same search wait for a single run. The page is only kept if
+     * {@code keep}, asked right after the search, holds.
+     */
+    public Page<Book> get(Book filter, Pageable pageRequest, boolean approximateTotal, long epoch,
+                          Supplier<Page<Book>> search, BooleanSupplier keep) {
+        PageKey key = new PageKey(epoch, BookFilterKey.of(filter), pageRequest, approximateTotal);
+        AtomicReference<Page<Book>> unkept = new AtomicReference<>();
+        Page<Book> page = pages.get(key, ignored -> {
+            Page<Book> read = search.get();
+            if (keep.getAsBoolean()) {
+                return read;
+            }
+            unkept.set(read);
+            return null;
+        });
+        return page != null ? page : unkept.get();
+    }
+
+    public CacheStats stats() {
+        return pages.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, pages, NAME);
+    }
+
+    private record PageKey(long epoch, BookFilterKey filter, Pageable pageRequest, boolean approximateTotal) {
+    }
+}
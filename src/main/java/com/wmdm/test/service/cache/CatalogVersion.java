@@ -0,0 +1,56 @@
+package com.wmdm.test.service.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write epoch of the book catalog, bumped by every book write. Results derived from the
+ * catalog are tagged with the epoch read before computing them and are only reused while
+ * it is still current.
+ */
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong epoch = new AtomicLong();
+    private volatile long bumpedAtNanos;
+    private volatile boolean bumped;
+
+    public long current() {
+        return epoch.get();
+    }
+
+    /**
+     * Whether the last epoch started less than {@code period} ago.
+     */
+    public boolean bumpedWithin(Duration period) {
+        return bumped && System.nanoTime() - bumpedAtNanos < period.toNanos();
+    }
+
+    /**
+     * Starts a new epoch once the write is visible to other readers: when the surrounding
+     * transaction completes, or right away outside one. Bumping before the commit would let
+     * a reader tag a result computed without the write with the new epoch.
+     */
+    public void bump() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            advance();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                advance();
+            }
+        });
+    }
+
+    private void advance() {
+        bumpedAtNanos = System.nanoTime();
+        bumped = true;
+        epoch.incrementAndGet();
+    }
+}
@@ -1,41 +1,254 @@
 package com.wmdm.test.service.imp;
 
 import com.wmdm.test.api.exceptions.BusinessException;
+import com.wmdm.test.api.pagination.CountedPage;
+import com.wmdm.test.model.datasource.ReplicaRouting;
 import com.wmdm.test.model.entity.Book;
 import com.wmdm.test.model.repository.BookRepository;
 import com.wmdm.test.service.BookService;
+import com.wmdm.test.service.cache.BookCountCache;
+import com.wmdm.test.service.cache.BookIsbnCache;
+import com.wmdm.test.service.cache.BookPageCache;
+import com.wmdm.test.service.cache.CatalogVersion;
+import com.wmdm.test.service.cache.SingleFlight;
+import com.wmdm.test.service.search.BookSearchIndex;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.convert.QueryByExamplePredicateBuilder;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = BookServiceImp.TIMER, histogram = true)
 public class BookServiceImp implements BookService {
 
+    static final String TIMER = "book.service";
+    static final int BATCH_CHUNK_SIZE = 500;
+    static final int MAX_INDEX_CANDIDATES = 1000;
+    static final Duration SINGLE_FLIGHT_TIMEOUT = Duration.ofSeconds(5);
+
     @Autowired
     BookRepository repository;
 
+    @PersistenceContext
+    EntityManager entityManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private final BookIsbnCache isbnCache;
+    private final BookSearchIndex searchIndex;
+    private final BookCountCache countCache;
+    private final BookPageCache pageCache;
+    private final CatalogVersion catalogVersion;
+    private final SingleFlight<Long, Optional<Book>> loadsById;
+    private final SingleFlight<String, Optional<Book>> loadsByIsbn;
+
     public BookServiceImp(BookRepository repository) {
+        this(repository, new BookIsbnCache(), new BookSearchIndex(false));
+    }
+
+    public BookServiceImp(BookRepository repository, BookIsbnCache isbnCache, BookSearchIndex searchIndex) {
+        this(repository, isbnCache, searchIndex, new BookCountCache(), new BookPageCache(), new CatalogVersion(),
+                SINGLE_FLIGHT_TIMEOUT);
+    }
+
+    @Autowired
+    public BookServiceImp(BookRepository repository, BookIsbnCache isbnCache, BookSearchIndex searchIndex,
+                          BookCountCache countCache, BookPageCache pageCache, CatalogVersion catalogVersion,
+                          @Value("${book.single-flight.timeout:5s}") Duration singleFlightTimeout) {
         this.repository = repository;
+        this.isbnCache = isbnCache;
+        this.searchIndex = searchIndex;
+        this.countCache = countCache;
+        this.pageCache = pageCache;
+        this.catalogVersion = catalogVersion;
+        this.loadsById = new SingleFlight<>(singleFlightTimeout);
+        this.loadsByIsbn = new SingleFlight<>(singleFlightTimeout);
+    }
+
+    /**
+     * Database reads of {@link #getById}, {@link #find} and {@link #getBookByIsbn} run in a
+     * read-only transaction, which the read replica routing sends to a replica. It is opened
+     * only once the caches miss, as a transaction costs more than a cache hit.
+     */
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     @Override
     public Book save(Book book) {
-        boolean test = repository.existsByIsbn(book.getIsbn());
-        if(test){
-            throw new BusinessException("Isbn already registered");
+        try {
+            Book saved = repository.saveAndFlush(book);
+            searchIndex.index(saved);
+            catalogVersion.bump();
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (isIsbnViolation(e)) {
+                throw new BusinessException("Isbn already registered");
+            }
+            throw e;
         }
-        Book bookSaved = repository.save(book);
-        return bookSaved;
+    }
+
+    /**
+     * Persists the books whose ISBN is not registered yet, one chunk at a time: a single
+     * ISBN lookup per chunk and one batched insert. Repeated ISBNs inside the list are
+     * kept only on their first occurrence. Returns the persisted books.
+     */
+    @Override
+    public List<Book> saveAll(List<Book> books) {
+        List<Book> saved = new ArrayList<>(books.size());
+        for (int from = 0; from < books.size(); from += BATCH_CHUNK_SIZE) {
+            List<Book> chunk = books.subList(from, Math.min(from + BATCH_CHUNK_SIZE, books.size()));
+            Set<String> isbns = chunk.stream().map(Book::getIsbn).collect(Collectors.toSet());
+            Set<String> registered = new HashSet<>(repository.findRegisteredIsbns(isbns));
+            List<Book> toInsert = new ArrayList<>(chunk.size());
+            for (Book book : chunk) {
+                if (registered.add(book.getIsbn())) {
+                    toInsert.add(book);
+                }
+            }
+            if (!toInsert.isEmpty()) {
+                saved.addAll(insertChunk(toInsert));
+            }
+        }
+        saved.forEach(searchIndex::index);
+        if (!saved.isEmpty()) {
+            catalogVersion.bump();
+        }
+        return saved;
+    }
+
+    /**
+     * A concurrent writer may register one of the chunk's ISBNs between the lookup and
+     * the insert; the chunk is then retried row by row so only that book is skipped.
+     */
+    private List<Book> insertChunk(List<Book> books) {
+        try {
+            return repository.saveAll(books);
+        } catch (DataIntegrityViolationException e) {
+            if (!isIsbnViolation(e)) {
+                throw e;
+            }
+            List<Book> saved = new ArrayList<>(books.size());
+            for (Book book : books) {
+                book.setId(null);
+                book.setVersion(null);
+                try {
+                    saved.add(save(book));
+                } catch (BusinessException duplicate) {
+                    // registered meanwhile, reported to the caller as not saved
+                }
+            }
+            return saved;
+        }
+    }
+
+    private <T> T readOnly(Supplier<T> read) {
+        ReplicaRouting.startRead();
+        if (readOnlyTransaction == null) {
+            return read.get();
+        }
+        return readOnlyTransaction.execute(status -> read.get());
+    }
+
+    /**
+     * Drops a written book from the ISBN cache and detaches its in-flight loads, under its id,
+     * its new ISBN and the ISBN it was cached with before the write, so that no later lookup
+     * is answered with what a load read before the write.
+     */
+    private void forget(Book book) {
+        String cachedIsbn = isbnCache.invalidate(book);
+        loadsById.forget(book.getId());
+        if (book.getIsbn() != null) {
+            loadsByIsbn.forget(BookIsbnCache.normalize(book.getIsbn()));
+        }
+        if (cachedIsbn != null) {
+            loadsByIsbn.forget(cachedIsbn);
+        }
+    }
+
+    /**
+     * Shares the in-flight load of {@code key} with concurrent callers, except for a caller that
+     * must read its own writes: the load it would join may be reading a replica.
+     */
+    private static <K> Optional<Book> load(SingleFlight<K, Optional<Book>> loads, K key,
+                                           Function<K, Optional<Book>> loader) {
+        if (ReplicaRouting.isPrimaryOnly()) {
+            return loader.apply(key);
+        }
+        return loads.load(key, loader);
+    }
+
+    /**
+     * Whether the caches may keep what the last {@link #readOnly} returned. A replica may not have the
+     * latest writes yet, and a cache would serve its result for the rest of the epoch.
+     */
+    private static boolean cacheable() {
+        return !ReplicaRouting.readFromReplica();
+    }
+
+    private static Book copyOf(Book book) {
+        return Book.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .isbn(book.getIsbn())
+                .version(book.getVersion())
+                .build();
+    }
+
+    private static boolean isIsbnViolation(DataIntegrityViolationException e) {
+        if (!(e.getCause() instanceof ConstraintViolationException)) {
+            return false;
+        }
+        String constraint = ((ConstraintViolationException) e.getCause()).getConstraintName();
+        return constraint != null && constraint.toLowerCase().contains(Book.ISBN_UNIQUE_CONSTRAINT);
     }
 
     @Override
     public Optional<Book> getById(Long id) {
-        return repository.findById(id);
+        // concurrent callers share one load; each gets its own copy since callers may modify it
+        return load(loadsById, id, key -> readOnly(() -> repository.findById(key))).map(BookServiceImp::copyOf);
+    }
+
+    @Override
+    public Optional<Long> getVersion(Long id) {
+        return repository.findVersionById(id);
     }
 
     @Override
@@ -44,6 +257,20 @@ public class BookServiceImp implements BookService {
             throw new IllegalArgumentException("Book id Can't Be null!");
         }
         this.repository.delete(book);
+        forget(book);
+        searchIndex.remove(book.getId());
+        catalogVersion.bump();
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        if (repository.deleteBookById(id) == 0) {
+            return false;
+        }
+        forget(Book.builder().id(id).build());
+        searchIndex.remove(id);
+        catalogVersion.bump();
+        return true;
     }
 
     @Override
@@ -51,22 +278,159 @@ public class BookServiceImp implements BookService {
         if(book == null || book.getId() == null){
             throw new IllegalArgumentException("Book id Can't Be null!");
         }
-        return this.repository.save(book);
+        Book updated;
+        try {
+            updated = this.repository.save(book);
+        } catch (DataIntegrityViolationException e) {
+            if (isIsbnViolation(e)) {
+                throw new BusinessException("Isbn already registered");
+            }
+            throw e;
+        }
+        forget(book);
+        searchIndex.index(updated);
+        catalogVersion.bump();
+        return updated;
+    }
+
+    /**
+     * Applies the non-null fields of {@code changes} with a single update statement, only to
+     * the given version when one is passed. Returns false when no row matched.
+     */
+    @Override
+    public boolean patch(Long id, Book changes, Long version) {
+        int updated;
+        try {
+            updated = repository.patch(id, changes.getTitle(), changes.getAuthor(), changes.getIsbn(), version);
+        } catch (DataIntegrityViolationException e) {
+            if (isIsbnViolation(e)) {
+                throw new BusinessException("Isbn already registered");
+            }
+            throw e;
+        }
+        if (updated == 0) {
+            return false;
+        }
+        forget(Book.builder().id(id).isbn(changes.getIsbn()).build());
+        searchIndex.update(id, changes.getTitle(), changes.getAuthor());
+        catalogVersion.bump();
+        return true;
     }
 
     @Override
     public Page<Book> find(Book filter, Pageable pageRequest) {
-        Example<Book> example = Example.of(filter, ExampleMatcher
+        return find(filter, pageRequest, false);
+    }
+
+    /**
+     * Serves a repeated search from the page cache until the next book write. Otherwise reads
+     * the page content, then takes the total from the content when the page is the last one,
+     * or from the count cache, so later pages of a search never count again. An approximate
+     * search does not count at all when an earlier total for the filter, or the number of
+     * search index candidates, can stand in for it. Neither cache keeps what a replica read.
+     */
+    @Override
+    public Page<Book> find(Book filter, Pageable pageRequest, boolean approximateTotal) {
+        long epoch = catalogVersion.current();
+        if (pageRequest.isUnpaged()) {
+            // a whole result set is too large to keep
+            return readOnly(() -> search(filter, pageRequest, approximateTotal, epoch));
+        }
+        return pageCache.get(filter, pageRequest, approximateTotal, epoch,
+                () -> readOnly(() -> search(filter, pageRequest, approximateTotal, epoch)), BookServiceImp::cacheable);
+    }
+
+    private Page<Book> search(Book filter, Pageable pageRequest, boolean approximateTotal, long epoch) {
+        Example<Book> example = toExample(filter);
+        Optional<Set<Long>> candidates = searchIndex.match(filter.getTitle(), filter.getAuthor());
+        if (candidates.isPresent() && candidates.get().isEmpty()) {
+            return new CountedPage<>(Collections.emptyList(), pageRequest, 0, false);
+        }
+        Specification<Book> spec = (root, query, cb) -> QueryByExamplePredicateBuilder.getPredicate(root, cb, example);
+        if (candidates.isPresent() && candidates.get().size() <= MAX_INDEX_CANDIDATES) {
+            Set<Long> ids = candidates.get();
+            spec = spec.and((root, query, cb) -> root.get("id").in(ids));
+        }
+        List<Book> content = repository.findContent(spec, pageRequest);
+        if (isLastPage(content, pageRequest)) {
+            return new CountedPage<>(content, pageRequest, pageRequest.getOffset() + content.size(), false);
+        }
+        if (approximateTotal) {
+            OptionalLong exact = countCache.cached(filter, epoch);
+            if (exact.isPresent()) {
+                return new CountedPage<>(content, pageRequest, exact.getAsLong(), false);
+            }
+            OptionalLong estimate = countCache.latest(filter);
+            if (estimate.isEmpty() && candidates.isPresent() && filter.getIsbn() == null) {
+                estimate = OptionalLong.of(candidates.get().size());
+            }
+            if (estimate.isPresent()) {
+                return new CountedPage<>(content, pageRequest, estimate.getAsLong(), true);
+            }
+        }
+        Specification<Book> counted = spec;
+        long total = cacheable()
+                ? countCache.get(filter, epoch, () -> repository.count(counted))
+                : repository.count(counted);
+        return new CountedPage<>(content, pageRequest, total, false);
+    }
+
+    private static boolean isLastPage(List<Book> content, Pageable pageRequest) {
+        if (pageRequest.isUnpaged()) {
+            return true;
+        }
+        return content.size() < pageRequest.getPageSize() && (pageRequest.getOffset() == 0 || !content.isEmpty());
+    }
+
+    @Override
+    public Slice<Book> findAfter(Book filter, Sort.Order order, Book last, int size) {
+        List<Book> rows = repository.findAllAfter(toExample(filter), order, last, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<Book> content = hasNext ? rows.subList(0, size) : rows;
+        return new SliceImpl<>(content, PageRequest.of(0, size, Sort.by(order)), hasNext);
+    }
+
+    private static Example<Book> toExample(Book filter) {
+        return Example.of(filter, ExampleMatcher
                 .matching()
                 .withIgnoreCase()
                 .withIgnoreNullValues()
                 .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
-        return repository.findAll(example, pageRequest);
     }
 
     @Override
     public Optional<Book> getBookByIsbn(String isbn) {
-        return Optional.empty();
+        if (isbn == null) {
+            return Optional.empty();
+        }
+        // outside the cache so that concurrent misses for an unknown ISBN also share one load;
+        // the cached book is shared, so each caller gets its own copy
+        return load(loadsByIsbn, BookIsbnCache.normalize(isbn), key -> isbnCache.get(key,
+                normalized -> readOnly(() -> repository.findByNaturalId(normalized)), BookServiceImp::cacheable))
+                .map(BookServiceImp::copyOf);
+    }
+
+    @Override
+    public List<Book> findByIsbns(Collection<String> isbns) {
+        if (isbns.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return repository.findByIsbnIn(isbns);
+    }
+
+    /**
+     * Streams the whole catalog in id order with a JDBC fetch size, detaching each book once
+     * handled so the persistence context stays empty however large the catalog is.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachBook(Consumer<Book> action) {
+        try (Stream<Book> books = repository.streamAll()) {
+            books.forEach(book -> {
+                action.accept(book);
+                entityManager.detach(book);
+            });
+        }
     }
 
 }
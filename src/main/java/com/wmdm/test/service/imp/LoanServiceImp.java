@@ -1,14 +1,143 @@
 package com.wmdm.test.service.imp;
 
+import com.wmdm.test.api.exceptions.BusinessException;
 import com.wmdm.test.model.entity.Loan;
+import com.wmdm.test.model.repository.LoanRepository;
 import com.wmdm.test.service.LoanService;
+import com.wmdm.test.service.journal.LoanEvent;
+import com.wmdm.test.service.journal.LoanJournal;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
 @Service
+@Timed(value = LoanServiceImp.TIMER, histogram = true)
 public class LoanServiceImp implements LoanService {
 
+    static final String TIMER = "loan.service";
+
+    @Autowired
+    LoanRepository repository;
+
+    @Autowired(required = false)
+    LoanJournal journal;
+
+    public LoanServiceImp(LoanRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Checks a book out with a single insert. Concurrent checkouts of the same book race
+     * on the unique index over the active ISBN, and every loser gets "Book already loaned".
+     */
+    @Override
+    public Loan save(Loan loan) {
+        checkout(loan);
+        try {
+            Loan saved = repository.saveAndFlush(loan);
+            record(() -> LoanEvent.checkout(saved));
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (isActiveLoanViolation(e)) {
+                throw new BusinessException("Book already loaned");
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Checks out every loan whose book is not already on an active loan, looked up with one
+     * query and inserted with one batched {@code saveAll}. Only the first loan of an ISBN
+     * repeated in the list is kept. Returns the loans that were persisted.
+     */
+    @Override
+    public List<Loan> saveAll(List<Loan> loans) {
+        Set<String> isbns = loans.stream().map(Loan::getIsbn).collect(Collectors.toSet());
+        Set<String> loaned = isbns.isEmpty() ? new HashSet<>() : new HashSet<>(repository.findActiveIsbns(isbns));
+        List<Loan> toInsert = new ArrayList<>(loans.size());
+        for (Loan loan : loans) {
+            if (loaned.add(loan.getIsbn())) {
+                checkout(loan);
+                toInsert.add(loan);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return toInsert;
+        }
+        List<Loan> saved = insertAll(toInsert);
+        saved.forEach(loan -> record(() -> LoanEvent.checkout(loan)));
+        return saved;
+    }
+
+    /**
+     * A concurrent checkout may take one of the books between the lookup and the insert;
+     * the loans are then retried one by one so only that book is skipped.
+     */
+    private List<Loan> insertAll(List<Loan> loans) {
+        try {
+            return repository.saveAll(loans);
+        } catch (DataIntegrityViolationException e) {
+            if (!isActiveLoanViolation(e)) {
+                throw e;
+            }
+            List<Loan> saved = new ArrayList<>(loans.size());
+            for (Loan loan : loans) {
+                loan.setId(null);
+                try {
+                    saved.add(repository.saveAndFlush(loan));
+                } catch (DataIntegrityViolationException alreadyLoaned) {
+                    if (!isActiveLoanViolation(alreadyLoaned)) {
+                        throw alreadyLoaned;
+                    }
+                    // loaned meanwhile, reported to the caller as not saved
+                }
+            }
+            return saved;
+        }
+    }
+
+    /**
+     * Loans start today and are due a loan period later, whatever the caller passed: the
+     * overdue scan only looks past its last due date, so an earlier one would never be reported.
+     */
+    private static void checkout(Loan loan) {
+        loan.setId(null);
+        loan.setReturned(false);
+        loan.setActiveIsbn(loan.getIsbn());
+        loan.setLoanDate(LocalDate.now());
+        loan.setDueDate(loan.getLoanDate().plusDays(Loan.LOAN_PERIOD_DAYS));
+    }
+
     @Override
-    public Loan save(Loan any) {
-        return null;
+    public boolean returnBook(Long id) {
+        if (repository.markReturned(id) == 0) {
+            return false;
+        }
+        record(() -> LoanEvent.returned(id));
+        return true;
+    }
+
+    private void record(Supplier<LoanEvent> event) {
+        if (journal != null) {
+            journal.append(event.get());
+        }
+    }
+
+    private static boolean isActiveLoanViolation(DataIntegrityViolationException e) {
+        if (!(e.getCause() instanceof ConstraintViolationException)) {
+            return false;
+        }
+        String constraint = ((ConstraintViolationException) e.getCause()).getConstraintName();
+        return constraint != null && constraint.toLowerCase().contains(Loan.ACTIVE_ISBN_UNIQUE_CONSTRAINT);
     }
 }
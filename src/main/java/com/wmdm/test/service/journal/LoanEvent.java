@@ -0,0 +1,44 @@
+package com.wmdm.test.service.journal;
+
+import com.wmdm.test.model.entity.Loan;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanEvent {
+
+    public enum Type { CHECKOUT, RETURN }
+
+    private Type type;
+    private long loanId;
+    private long timestamp;
+    private String isbn;
+    private String custumer;
+    private LocalDate dueDate;
+
+    public static LoanEvent checkout(Loan loan) {
+        return LoanEvent.builder()
+                .type(Type.CHECKOUT)
+                .loanId(loan.getId())
+                .timestamp(System.currentTimeMillis())
+                .isbn(loan.getIsbn())
+                .custumer(loan.getCustumer())
+                .dueDate(loan.getDueDate())
+                .build();
+    }
+
+    public static LoanEvent returned(long loanId) {
+        return LoanEvent.builder()
+                .type(Type.RETURN)
+                .loanId(loanId)
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.wmdm.test.service.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Binary layout of a journal record: payload length and CRC32 of the payload as two ints,
+ * then the payload itself (type, loan id, timestamp, due date as epoch day and the
+ * length-prefixed UTF-8 isbn and custumer). A zero length marks the end of a segment.
+ */
+final class LoanEventCodec {
+
+    static final int HEADER_SIZE = 8;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final LoanEvent.Type[] TYPES = LoanEvent.Type.values();
+
+    private LoanEventCodec() {
+    }
+
+    static byte[] encode(LoanEvent event) {
+        byte[] isbn = bytes(event.getIsbn());
+        byte[] custumer = bytes(event.getCustumer());
+        ByteBuffer payload = ByteBuffer.allocate(1 + 3 * Long.BYTES + stringSize(isbn) + stringSize(custumer));
+        payload.put((byte) event.getType().ordinal());
+        payload.putLong(event.getLoanId());
+        payload.putLong(event.getTimestamp());
+        payload.putLong(event.getDueDate() == null ? NO_DATE : event.getDueDate().toEpochDay());
+        putString(payload, isbn);
+        putString(payload, custumer);
+        return payload.array();
+    }
+
+    static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Decodes records from the buffer's position until the end marker, the end of the buffer
+     * or the first record whose length or CRC does not check out, and returns the position
+     * right after the last valid record.
+     */
+    static int scan(ByteBuffer buffer, Consumer<LoanEvent> consumer) {
+        int end = buffer.position();
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int length = buffer.getInt();
+            int crc = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            if (crc(payload) != crc) {
+                break;
+            }
+            consumer.accept(decode(ByteBuffer.wrap(payload)));
+            end = buffer.position();
+        }
+        return end;
+    }
+
+    private static LoanEvent decode(ByteBuffer payload) {
+        LoanEvent.Type type = TYPES[payload.get()];
+        long loanId = payload.getLong();
+        long timestamp = payload.getLong();
+        long dueDate = payload.getLong();
+        return LoanEvent.builder()
+                .type(type)
+                .loanId(loanId)
+                .timestamp(timestamp)
+                .dueDate(dueDate == NO_DATE ? null : LocalDate.ofEpochDay(dueDate))
+                .isbn(getString(payload))
+                .custumer(getString(payload))
+                .build();
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(byte[] value) {
+        return Short.BYTES + (value == null ? 0 : value.length);
+    }
+
+    private static void putString(ByteBuffer payload, byte[] value) {
+        if (value == null) {
+            payload.putShort((short) -1);
+            return;
+        }
+        if (value.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal value too long: " + value.length + " bytes");
+        }
+        payload.putShort((short) value.length);
+        payload.put(value);
+    }
+
+    private static String getString(ByteBuffer payload) {
+        short length = payload.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        payload.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,235 @@
+package com.wmdm.test.service.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only journal of loan events kept in memory-mapped segment files of a fixed size.
+ * An append is a copy into the mapped segment; a flusher thread forces the segment to disk
+ * every {@code flushInterval}, covering all the records appended since the previous flush
+ * with a single fsync. With {@code syncOnAppend} each append waits for the flush that covers
+ * it, otherwise a crash may lose up to one flush interval of records.
+ *
+ * <p>When a segment is full the next record starts a new one. On open the last segment is
+ * scanned and appending resumes after its last record with a valid CRC.
+ *
+ * <p>Waiting is done on a {@link ReentrantLock} rather than a monitor, so appends made from
+ * virtual threads park without pinning their carrier thread.
+ */
+public class LoanJournal implements Closeable {
+
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalNanos;
+    private final boolean syncOnAppend;
+    private final Thread flusher;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appendedCondition = lock.newCondition();
+    private final Condition flushedCondition = lock.newCondition();
+
+    private long segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long appended;
+    private long flushed;
+    private boolean flusherWaiting;
+    private boolean closed;
+
+    public LoanJournal(Path directory, int segmentSize, Duration flushInterval, boolean syncOnAppend) {
+        if (segmentSize <= LoanEventCodec.HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.syncOnAppend = syncOnAppend;
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = LoanJournalReader.segments(directory);
+            if (segments.isEmpty()) {
+                openSegment(0);
+            } else {
+                Path last = segments.get(segments.size() - 1);
+                openSegment(LoanJournalReader.segmentNumber(last));
+                resumeAfterLastRecord();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open loan journal in " + directory, e);
+        }
+        this.flusher = new Thread(this::flushLoop, "loan-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Appends the event and returns its sequence number in this journal instance.
+     */
+    public long append(LoanEvent event) {
+        byte[] payload = LoanEventCodec.encode(event);
+        int recordSize = LoanEventCodec.HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("Journal record of " + recordSize + " bytes exceeds the segment size");
+        }
+        long sequence;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Loan journal is closed");
+            }
+            if (buffer.remaining() < recordSize) {
+                roll();
+            }
+            buffer.putInt(payload.length);
+            buffer.putInt(LoanEventCodec.crc(payload));
+            buffer.put(payload);
+            sequence = ++appended;
+            if (flusherWaiting) {
+                appendedCondition.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (syncOnAppend) {
+            awaitFlushed(sequence);
+        }
+        return sequence;
+    }
+
+    /**
+     * Blocks until the record with the given sequence number, and every record before it,
+     * has been forced to disk.
+     */
+    public void awaitFlushed(long sequence) {
+        lock.lock();
+        try {
+            while (flushed < sequence && !closed) {
+                flushedCondition.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            appendedCondition.signalAll();
+            flushedCondition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            buffer.force();
+            flushed = appended;
+            flushedCondition.signalAll();
+            closeChannel();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            MappedByteBuffer target;
+            long sequence;
+            lock.lock();
+            try {
+                while (!closed && flushed == appended) {
+                    flusherWaiting = true;
+                    try {
+                        appendedCondition.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    } finally {
+                        flusherWaiting = false;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+                target = buffer;
+                sequence = appended;
+            } finally {
+                lock.unlock();
+            }
+            target.force();
+            lock.lock();
+            try {
+                flushed = Math.max(flushed, sequence);
+                flushedCondition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (flushIntervalNanos > 0) {
+                // lets appends accumulate so the next fsync covers a whole group of them
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+    }
+
+    private void roll() {
+        buffer.force();
+        closeChannel();
+        try {
+            openSegment(segment + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll loan journal in " + directory, e);
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        segment = number;
+        channel = FileChannel.open(LoanJournalReader.segmentPath(directory, number),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    /**
+     * Positions the buffer after the last valid record and zeroes what follows, so the
+     * bytes of a torn write can never be read back as records.
+     */
+    private void resumeAfterLastRecord() {
+        int end = LoanEventCodec.scan(buffer.duplicate(), event -> { });
+        buffer.position(end);
+        for (int position = end; position < buffer.limit(); position++) {
+            buffer.put(position, (byte) 0);
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close loan journal segment " + segment, e);
+        }
+    }
+}
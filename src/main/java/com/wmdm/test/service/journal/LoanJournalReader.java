@@ -0,0 +1,65 @@
+package com.wmdm.test.service.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads the segments of a {@link LoanJournal} directory in order. Each segment is read up
+ * to its end marker or its first record failing the CRC check.
+ */
+public final class LoanJournalReader {
+
+    private LoanJournalReader() {
+    }
+
+    /**
+     * Feeds every event of the journal to the consumer and returns how many were read.
+     */
+    public static long replay(Path directory, Consumer<LoanEvent> consumer) {
+        long[] count = new long[1];
+        for (Path segment : segments(directory)) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                LoanEventCodec.scan(buffer, event -> {
+                    count[0]++;
+                    consumer.accept(event);
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read loan journal segment " + segment, e);
+            }
+        }
+        return count[0];
+    }
+
+    static List<Path> segments(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(LoanJournal.SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list loan journal " + directory, e);
+        }
+    }
+
+    static Path segmentPath(Path directory, long number) {
+        return directory.resolve(String.format("%020d%s", number, LoanJournal.SEGMENT_SUFFIX));
+    }
+
+    static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - LoanJournal.SEGMENT_SUFFIX.length()));
+    }
+}
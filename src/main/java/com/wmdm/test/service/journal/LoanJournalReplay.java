@@ -0,0 +1,46 @@
+package com.wmdm.test.service.journal;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rebuilds the set of active loans from a journal directory. Run it with the directory as
+ * its only argument to print a summary of the journal and the loans still active.
+ */
+public final class LoanJournalReplay {
+
+    private LoanJournalReplay() {
+    }
+
+    /**
+     * Active loans by id: every checkout not followed by a return of the same loan.
+     */
+    public static Map<Long, LoanEvent> activeLoans(Path directory) {
+        Map<Long, LoanEvent> active = new LinkedHashMap<>();
+        LoanJournalReader.replay(directory, event -> {
+            if (event.getType() == LoanEvent.Type.CHECKOUT) {
+                active.put(event.getLoanId(), event);
+            } else {
+                active.remove(event.getLoanId());
+            }
+        });
+        return active;
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: LoanJournalReplay <journal directory>");
+            System.exit(2);
+        }
+        Path directory = Paths.get(args[0]);
+        long[] counts = new long[LoanEvent.Type.values().length];
+        long total = LoanJournalReader.replay(directory, event -> counts[event.getType().ordinal()]++);
+        Map<Long, LoanEvent> active = activeLoans(directory);
+        System.out.printf("%d events: %d checkouts, %d returns, %d loans active%n", total,
+                counts[LoanEvent.Type.CHECKOUT.ordinal()], counts[LoanEvent.Type.RETURN.ordinal()], active.size());
+        active.values().forEach(loan -> System.out.printf("%d\t%s\t%s\t%s%n",
+                loan.getLoanId(), loan.getIsbn(), loan.getCustumer(), loan.getDueDate()));
+    }
+}
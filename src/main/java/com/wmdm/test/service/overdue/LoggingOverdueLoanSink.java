@@ -0,0 +1,18 @@
+package com.wmdm.test.service.overdue;
+
+import com.wmdm.test.model.entity.Loan;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+@Slf4j
+public class LoggingOverdueLoanSink implements OverdueLoanSink {
+
+    @Override
+    public void notify(List<Loan> overdue) {
+        for (Loan loan : overdue) {
+            log.info("Loan {} of isbn {} to {} was due on {}",
+                    loan.getId(), loan.getIsbn(), loan.getCustumer(), loan.getDueDate());
+        }
+    }
+}
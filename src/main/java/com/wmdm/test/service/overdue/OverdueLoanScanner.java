@@ -0,0 +1,137 @@
+package com.wmdm.test.service.overdue;
+
+import com.wmdm.test.model.entity.Loan;
+import com.wmdm.test.model.entity.OverdueScanCheckpoint;
+import com.wmdm.test.model.repository.LoanRepository;
+import com.wmdm.test.model.repository.OverdueScanCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds loans that became overdue since the last scan. The scan seeks the due date index
+ * from a persisted high-water mark, so its cost follows the new overdue loans and not the
+ * size of the loan table. Each chunk is split across a worker pool and handed to the
+ * {@link OverdueLoanSink}; the mark only moves once the whole chunk was delivered, so a
+ * failed scan repeats its last chunk instead of losing it.
+ */
+@Slf4j
+@Component
+public class OverdueLoanScanner {
+
+    static final String CHECKPOINT = "overdue-loans";
+    static final LocalDate START = LocalDate.of(1970, 1, 1);
+
+    private final LoanRepository loanRepository;
+    private final OverdueScanCheckpointRepository checkpointRepository;
+    private final OverdueLoanSink sink;
+    private final Clock clock;
+    private final int chunkSize;
+    private final int workers;
+    private final ExecutorService pool;
+
+    @Autowired
+    public OverdueLoanScanner(LoanRepository loanRepository,
+                              OverdueScanCheckpointRepository checkpointRepository,
+                              ObjectProvider<OverdueLoanSink> sink,
+                              @Value("${loan.overdue-scan.chunk-size:500}") int chunkSize,
+                              @Value("${loan.overdue-scan.workers:4}") int workers) {
+        this(loanRepository, checkpointRepository, sink.getIfAvailable(LoggingOverdueLoanSink::new),
+                Clock.systemDefaultZone(), chunkSize, workers);
+    }
+
+    public OverdueLoanScanner(LoanRepository loanRepository,
+                              OverdueScanCheckpointRepository checkpointRepository,
+                              OverdueLoanSink sink, Clock clock, int chunkSize, int workers) {
+        this.loanRepository = loanRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.sink = sink;
+        this.clock = clock;
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+        AtomicInteger threads = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "overdue-scan-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(initialDelayString = "${loan.overdue-scan.interval:PT1H}",
+            fixedDelayString = "${loan.overdue-scan.interval:PT1H}")
+    public void scheduledScan() {
+        int found = scan();
+        if (found > 0) {
+            log.info("Reported {} overdue loans", found);
+        }
+    }
+
+    /**
+     * Reports every active loan that became overdue since the last scan and returns how
+     * many were reported.
+     */
+    public synchronized int scan() {
+        LocalDate today = LocalDate.now(clock);
+        OverdueScanCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT)
+                .orElseGet(() -> OverdueScanCheckpoint.builder().name(CHECKPOINT).dueDate(START).loanId(0L).build());
+        int found = 0;
+        List<Loan> chunk;
+        do {
+            chunk = loanRepository.findOverdueAfter(today, checkpoint.getDueDate(), checkpoint.getLoanId(),
+                    PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            deliver(chunk);
+            Loan last = chunk.get(chunk.size() - 1);
+            checkpoint.setDueDate(last.getDueDate());
+            checkpoint.setLoanId(last.getId());
+            checkpoint = checkpointRepository.save(checkpoint);
+            found += chunk.size();
+        } while (chunk.size() == chunkSize);
+        return found;
+    }
+
+    private void deliver(List<Loan> chunk) {
+        int sliceSize = (chunk.size() + workers - 1) / workers;
+        List<Callable<Void>> slices = new ArrayList<>(workers);
+        for (int from = 0; from < chunk.size(); from += sliceSize) {
+            List<Loan> slice = chunk.subList(from, Math.min(from + sliceSize, chunk.size()));
+            slices.add(() -> {
+                sink.notify(slice);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> delivered : pool.invokeAll(slices)) {
+                delivered.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Overdue scan interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Overdue loan sink failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
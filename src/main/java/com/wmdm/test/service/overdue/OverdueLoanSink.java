@@ -0,0 +1,14 @@
+package com.wmdm.test.service.overdue;
+
+import com.wmdm.test.model.entity.Loan;
+
+import java.util.List;
+
+/**
+ * Receives the overdue loans found by {@link OverdueLoanScanner}, one chunk at a time and
+ * possibly from several worker threads at once.
+ */
+public interface OverdueLoanSink {
+
+    void notify(List<Loan> overdue);
+}
@@ -0,0 +1,240 @@
+package com.wmdm.test.service.search;
+
+import com.wmdm.test.model.entity.Book;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-memory trigram index over book titles and authors, used to select the candidate ids
+ * of a case-insensitive substring search instead of scanning the table with
+ * {@code lower(x) like '%term%'}. Candidates are verified against the indexed text, so a
+ * match is exact. Terms shorter than three characters cannot be answered by the index.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final boolean enabled;
+    private final Map<String, Set<Long>> titleGrams = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> authorGrams = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    // ids written while a rebuild runs, whose rows the rebuild may have read before the write
+    private Set<Long> writtenDuringRebuild;
+
+    public BookSearchIndex() {
+        this(true);
+    }
+
+    @Autowired
+    public BookSearchIndex(@Value("${book.search-index.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Marks the index as complete; until then {@link #match} leaves searches to the database.
+     */
+    public void markReady() {
+        this.ready = enabled;
+    }
+
+    public synchronized void index(Book book) {
+        if (!enabled || book.getId() == null) {
+            return;
+        }
+        written(book.getId());
+        put(book.getId(), new Entry(normalize(book.getTitle()), normalize(book.getAuthor())));
+    }
+
+    /**
+     * Applies a partial update to an indexed book; a {@code null} keeps the indexed value.
+     */
+    public synchronized void update(Long id, String title, String author) {
+        written(id);
+        Entry entry = entries.get(id);
+        if (!enabled || entry == null) {
+            return;
+        }
+        put(id, new Entry(title == null ? entry.title : normalize(title),
+                author == null ? entry.author : normalize(author)));
+    }
+
+    private void put(Long id, Entry entry) {
+        removeEntry(id);
+        entries.put(id, entry);
+        addGrams(titleGrams, entry.title, id);
+        addGrams(authorGrams, entry.author, id);
+    }
+
+    public synchronized void remove(Long id) {
+        written(id);
+        removeEntry(id);
+    }
+
+    private void removeEntry(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            removeGrams(titleGrams, entry.title, id);
+            removeGrams(authorGrams, entry.author, id);
+        }
+    }
+
+    public synchronized void clear() {
+        ready = false;
+        entries.clear();
+        titleGrams.clear();
+        authorGrams.clear();
+    }
+
+    /**
+     * Empties the index for a rebuild from the table. Until {@link #finishRebuild} reports
+     * nothing left to reload, {@link #load} leaves alone every book written in the meantime.
+     */
+    public synchronized void startRebuild() {
+        clear();
+        writtenDuringRebuild = new HashSet<>();
+    }
+
+    /**
+     * Indexes a book read by the rebuild, or drops it when {@code book} is null because its
+     * row is gone, unless the book was written since the rebuild started or last reported
+     * its writes: the row read may predate that write.
+     */
+    public synchronized void load(Long id, Book book) {
+        if (!enabled || writtenDuringRebuild == null || writtenDuringRebuild.contains(id)) {
+            return;
+        }
+        if (book == null) {
+            removeEntry(id);
+        } else {
+            put(id, new Entry(normalize(book.getTitle()), normalize(book.getAuthor())));
+        }
+    }
+
+    /**
+     * Ids written since the rebuild started, or since the last call, for the rebuild to read
+     * again. When there are none the rebuild is complete and the index ready.
+     */
+    public synchronized Set<Long> finishRebuild() {
+        if (writtenDuringRebuild == null || writtenDuringRebuild.isEmpty()) {
+            writtenDuringRebuild = null;
+            markReady();
+            return Collections.emptySet();
+        }
+        Set<Long> written = writtenDuringRebuild;
+        writtenDuringRebuild = new HashSet<>();
+        return written;
+    }
+
+    private void written(Long id) {
+        if (writtenDuringRebuild != null) {
+            writtenDuringRebuild.add(id);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Ids of the books whose title and author contain the given terms, ignoring case.
+     * Empty when the index cannot answer: it is not ready or neither term is long enough.
+     * A term too short for the index is left for the database to filter.
+     */
+    public Optional<Set<Long>> match(String title, String author) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        Set<Long> byTitle = candidates(titleGrams, normalize(title), entry -> entry.title);
+        Set<Long> byAuthor = candidates(authorGrams, normalize(author), entry -> entry.author);
+        if (byTitle == null) {
+            return Optional.ofNullable(byAuthor);
+        }
+        if (byAuthor != null) {
+            byTitle.retainAll(byAuthor);
+        }
+        return Optional.of(byTitle);
+    }
+
+    private Set<Long> candidates(Map<String, Set<Long>> grams, String term, Function<Entry, String> field) {
+        if (term == null || term.length() < GRAM) {
+            return null;
+        }
+        List<Set<Long>> postings = new ArrayList<>();
+        for (String gram : grams(term)) {
+            Set<Long> posting = grams.get(gram);
+            if (posting == null || posting.isEmpty()) {
+                return new HashSet<>();
+            }
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<Long> ids = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !ids.isEmpty(); i++) {
+            ids.retainAll(postings.get(i));
+        }
+        ids.removeIf(id -> {
+            Entry entry = entries.get(id);
+            return entry == null || field.apply(entry) == null || !field.apply(entry).contains(term);
+        });
+        return ids;
+    }
+
+    private static void addGrams(Map<String, Set<Long>> grams, String text, Long id) {
+        for (String gram : grams(text)) {
+            grams.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private static void removeGrams(Map<String, Set<Long>> grams, String text, Long id) {
+        for (String gram : grams(text)) {
+            grams.computeIfPresent(gram, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        if (text == null || text.length() < GRAM) {
+            return Collections.emptySet();
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? null : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        private final String title;
+        private final String author;
+
+        private Entry(String title, String author) {
+            this.title = title;
+            this.author = author;
+        }
+    }
+}
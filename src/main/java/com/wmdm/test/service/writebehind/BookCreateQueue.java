@@ -0,0 +1,194 @@
+package com.wmdm.test.service.writebehind;
+
+import com.wmdm.test.api.exceptions.BusinessException;
+import com.wmdm.test.model.entity.Book;
+import com.wmdm.test.service.BookService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Write-behind queue for book creates. Submitted books wait in a bounded queue and a
+ * flusher thread persists them through {@link BookService#saveAll} in groups: a group is
+ * flushed once it holds {@code batchSize} books or its first book has waited
+ * {@code maxDelay}, so a burst of creates shares one ISBN lookup and one batched insert.
+ *
+ * <p>Each caller's future completes with its persisted book, or with the
+ * {@link BusinessException} a single save would have thrown for an ISBN that is already
+ * registered, including by an earlier book of the same group. A full queue rejects the
+ * submit right away instead of making the caller wait, and {@link #save} waits at most
+ * {@code saveTimeout} for the flush.
+ */
+public class BookCreateQueue implements AutoCloseable {
+
+    static final String DUPLICATE_ISBN = "Isbn already registered";
+    static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    static final Duration DEFAULT_SAVE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final BookService bookService;
+    private final BlockingQueue<PendingCreate> queue;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final long saveTimeoutNanos;
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    public BookCreateQueue(BookService bookService, int capacity, int batchSize, Duration maxDelay) {
+        this(bookService, capacity, batchSize, maxDelay, DEFAULT_SAVE_TIMEOUT);
+    }
+
+    public BookCreateQueue(BookService bookService, int capacity, int batchSize, Duration maxDelay,
+                           Duration saveTimeout) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.bookService = bookService;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.saveTimeoutNanos = saveTimeout.toNanos();
+        this.flusher = new Thread(this::flushLoop, "book-create-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues the book for the next flush.
+     *
+     * @throws RejectedExecutionException if the queue is full or closed
+     */
+    public CompletableFuture<Book> submit(Book book) {
+        PendingCreate pending = new PendingCreate(book);
+        if (closed || !queue.offer(pending)) {
+            throw new RejectedExecutionException("Book create queue is " + (closed ? "closed" : "full"));
+        }
+        // close() may have drained the queue between the check and the offer
+        if (closed && queue.remove(pending)) {
+            throw new RejectedExecutionException("Book create queue is closed");
+        }
+        return pending.result;
+    }
+
+    /**
+     * Queues the book and waits for the flush that persists it.
+     *
+     * @throws BookCreateTimeoutException if the flush does not complete within the save timeout
+     */
+    public Book save(Book book) {
+        try {
+            return submit(book).get(saveTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new BookCreateTimeoutException("Timed out waiting for the create of " + book.getIsbn());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookCreateTimeoutException("Interrupted waiting for the create of " + book.getIsbn());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Stops accepting creates and flushes the ones still queued before returning.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingCreate> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingCreate> batch = new ArrayList<>(batchSize);
+        while (!closed) {
+            try {
+                PendingCreate first = queue.poll(IDLE_POLL_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                queue.drainTo(batch, batchSize - batch.size());
+                long remaining;
+                while (batch.size() < batchSize && !closed && (remaining = deadline - System.nanoTime()) > 0) {
+                    PendingCreate next = queue.poll(Math.min(remaining, IDLE_POLL_NANOS), TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                        queue.drainTo(batch, batchSize - batch.size());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Completes every future of the group, whatever the save throws, so that no caller is
+     * left waiting and the flusher thread keeps running.
+     */
+    private void flush(List<PendingCreate> batch) {
+        List<Book> books = new ArrayList<>(batch.size());
+        for (PendingCreate pending : batch) {
+            books.add(pending.book);
+        }
+        Set<Book> persisted = Collections.newSetFromMap(new IdentityHashMap<>());
+        try {
+            persisted.addAll(bookService.saveAll(books));
+        } catch (Throwable e) {
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+            return;
+        }
+        for (PendingCreate pending : batch) {
+            if (persisted.contains(pending.book)) {
+                pending.result.complete(pending.book);
+            } else {
+                pending.result.completeExceptionally(new BusinessException(DUPLICATE_ISBN));
+            }
+        }
+    }
+
+    private static final class PendingCreate {
+        private final Book book;
+        private final CompletableFuture<Book> result = new CompletableFuture<>();
+
+        private PendingCreate(Book book) {
+            this.book = book;
+        }
+    }
+}
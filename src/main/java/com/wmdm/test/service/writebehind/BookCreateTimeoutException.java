@@ -0,0 +1,11 @@
+package com.wmdm.test.service.writebehind;
+
+/**
+ * Thrown when a queued create is not flushed in time. The book may still be persisted by
+ * a flush already running, so a retry can answer "Isbn already registered".
+ */
+public class BookCreateTimeoutException extends RuntimeException {
+    public BookCreateTimeoutException(String message) {
+        super(message);
+    }
+}
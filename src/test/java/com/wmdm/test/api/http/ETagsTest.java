@@ -0,0 +1,39 @@
+package com.wmdm.test.api.http;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ETagsTest {
+
+    @Test
+    @DisplayName("Read Every Version Of An If-Match List")
+    public void versionsOfListTest() {
+        assertThat(ETags.versions("\"1\", W/\"2\",\"3\"")).containsExactly(1L, 2L, 3L);
+        assertThat(ETags.versions(" \"1\" ")).containsExactly(1L);
+        assertThat(ETags.versions("*")).isNull();
+    }
+
+    @Test
+    @DisplayName("Tags Of Something Else Match No Version")
+    public void versionsOfOtherTagsTest() {
+        assertThat(ETags.versions("\"9e107d9d372bb6826bd81d3542a419d6\"")).isEmpty();
+        assertThat(ETags.matches("\"abc\", \"4\"", 4L)).isTrue();
+        assertThat(ETags.matches("\"abc\"", 4L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Reject A Malformed If-Match")
+    public void malformedIfMatchTest() {
+        for (String ifMatch : new String[]{"1", "\"1", "\"1\"x", "W/1", ", "}) {
+            Throwable exception = Assertions.catchThrowable(() -> ETags.versions(ifMatch));
+
+            assertThat(exception).isInstanceOf(ResponseStatusException.class);
+            assertThat(((ResponseStatusException) exception).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.wmdm.test.api.io;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookRecordReaderTest {
+
+    @Test
+    @DisplayName("Read NDJSON Records")
+    public void readNdjsonTest() throws IOException {
+        BookRecordReader reader = BookRecordReader.ndjson(new StringReader(
+                "{\"title\":\"A\",\"author\":\"Jon\",\"isbn\":\"001\"}\n\n{not json}\n{\"title\":\"B\"}\n"), new ObjectMapper());
+
+        BookRecordReader.Record first = reader.next();
+        BookRecordReader.Record malformed = reader.next();
+        BookRecordReader.Record partial = reader.next();
+
+        assertThat(first.getNumber()).isEqualTo(1);
+        assertThat(first.getBook().getIsbn()).isEqualTo("001");
+        assertThat(malformed.getNumber()).isEqualTo(3);
+        assertThat(malformed.getError()).isEqualTo("Malformed JSON record");
+        assertThat(partial.getBook().getTitle()).isEqualTo("B");
+        assertThat(partial.getBook().getIsbn()).isNull();
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    @DisplayName("Read CSV Records")
+    public void readCsvTest() throws IOException {
+        BookRecordReader reader = BookRecordReader.csv(new StringReader(
+                "isbn,title,author\n001,\"A, \"\"quoted\"\"\nline\",Jon\n002,,Jon\n003\n"));
+
+        BookRecordReader.Record quoted = reader.next();
+        BookRecordReader.Record empty = reader.next();
+        BookRecordReader.Record missing = reader.next();
+
+        assertThat(quoted.getBook().getTitle()).isEqualTo("A, \"quoted\"\nline");
+        assertThat(quoted.getBook().getAuthor()).isEqualTo("Jon");
+        assertThat(quoted.getBook().getIsbn()).isEqualTo("001");
+        assertThat(empty.getNumber()).isEqualTo(2);
+        assertThat(empty.getBook().getTitle()).isNull();
+        assertThat(missing.getError()).isEqualTo("Missing CSV columns");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    @DisplayName("Skip NDJSON Lines Over The Record Length")
+    public void skipLongNdjsonLineTest() throws IOException {
+        BookRecordReader reader = BookRecordReader.ndjson(new StringReader(
+                "{\"title\":\"" + "A".repeat(100) + "\"}\n{\"title\":\"B\"}\r\n"), new ObjectMapper(), 50);
+
+        BookRecordReader.Record tooLong = reader.next();
+        BookRecordReader.Record next = reader.next();
+
+        assertThat(tooLong.getNumber()).isEqualTo(1);
+        assertThat(tooLong.getError()).isEqualTo("Record longer than 50 characters");
+        assertThat(next.getNumber()).isEqualTo(2);
+        assertThat(next.getBook().getTitle()).isEqualTo("B");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    @DisplayName("Stop An Unterminated CSV Value At The Record Length")
+    public void skipUnterminatedCsvValueTest() throws IOException {
+        BookRecordReader reader = BookRecordReader.csv(new StringReader(
+                "title,author,isbn\n\"A,Jon,001\nB,Jon,002\nC,Jon,003\nD,Jon,004\n"), 20);
+
+        BookRecordReader.Record tooLong = reader.next();
+        BookRecordReader.Record next = reader.next();
+
+        assertThat(tooLong.getError()).isEqualTo("Record longer than 20 characters");
+        assertThat(next.getBook().getTitle()).isEqualTo("D");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    @DisplayName("Read CSV Header With Byte Order Mark And Spaces")
+    public void readCsvHeaderWithBomTest() throws IOException {
+        BookRecordReader reader = BookRecordReader.csv(new StringReader("\uFEFFtitle , author, isbn\nA,Jon,001\n"));
+
+        BookRecordReader.Record record = reader.next();
+
+        assertThat(record.getBook().getTitle()).isEqualTo("A");
+        assertThat(record.getBook().getIsbn()).isEqualTo("001");
+    }
+
+    @Test
+    @DisplayName("Reject CSV Without Required Columns")
+    public void rejectCsvHeaderTest() {
+        Throwable exception = Assertions.catchThrowable(() -> BookRecordReader.csv(new StringReader("title,isbn\nA,001\n")));
+
+        assertThat(exception)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("CSV header must contain title, author and isbn");
+    }
+}
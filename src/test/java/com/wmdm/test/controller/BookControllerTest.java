@@ -2,41 +2,59 @@ package com.wmdm.test.controller;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import com.wmdm.test.DTOs.BookDTO;
 import com.wmdm.test.api.exceptions.BusinessException;
+import com.wmdm.test.api.pagination.CountedPage;
 import com.wmdm.test.model.entity.Book;
 import com.wmdm.test.service.BookService;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.BDDMockito;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
-@WebMvcTest//para camada de Controller
+@WebMvcTest(BookController.class)//para camada de Controller
 @AutoConfigureMockMvc//para camada de Controller
 public class BookControllerTest {
 
@@ -157,11 +175,28 @@ public class BookControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Timed Out Lookup Test")
+    public void timedOutLookupTest() throws Exception {
+        //Scenery
+        BDDMockito.given(bookService.getById(Mockito.anyLong()))
+                .willThrow(new QueryTimeoutException("Timed out waiting for the in-flight load of 1"));
+        //Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("/" + 1))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("errors[0]").value("Request timed out, retry later"));
+    }
+
     @Test
     @DisplayName("Delete Book Test")
     public void deleteBookTest() throws Exception {
         //Scenary
-        BDDMockito.given(bookService.getById(Mockito.anyLong())).willReturn(Optional.of(Book.builder().id(1L).build()));
+        BDDMockito.given(bookService.deleteById(1L)).willReturn(true);
 
         //Execution
         MockHttpServletRequestBuilder request = MockMvcRequestBuilders
@@ -176,7 +211,7 @@ public class BookControllerTest {
     @DisplayName("Not Found Delete Book Test")
     public void DeleteBookNonExistentTest() throws Exception {
         //Scenary
-        BDDMockito.given(bookService.getById(Mockito.anyLong())).willReturn(Optional.empty());
+        BDDMockito.given(bookService.deleteById(Mockito.anyLong())).willReturn(false);
 
         //Execution
         MockHttpServletRequestBuilder request = MockMvcRequestBuilders
@@ -187,6 +222,119 @@ public class BookControllerTest {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Patch Book Test")
+    public void patchBookTest() throws Exception {
+        //Scenery
+        BDDMockito.given(bookService.patch(Mockito.eq(10L), Mockito.any(Book.class), Mockito.isNull())).willReturn(true);
+        String json = new ObjectMapper().writeValueAsString(BookDTO.builder().title("New Title").build());
+
+        //Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .patch(BOOK_API.concat("/10"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        //Verification
+        mvc.perform(request).andExpect(status().isNoContent());
+        ArgumentCaptor<Book> changes = ArgumentCaptor.forClass(Book.class);
+        Mockito.verify(bookService).patch(Mockito.eq(10L), changes.capture(), Mockito.isNull());
+        assertThat(changes.getValue().getTitle()).isEqualTo("New Title");
+        assertThat(changes.getValue().getAuthor()).isNull();
+        Mockito.verify(bookService, Mockito.never()).getById(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("Patch Nonexistent Book Test")
+    public void patchBookNonExistentTest() throws Exception {
+        //Scenery
+        BDDMockito.given(bookService.patch(Mockito.anyLong(), Mockito.any(Book.class), Mockito.any())).willReturn(false);
+        String json = new ObjectMapper().writeValueAsString(BookDTO.builder().title("New Title").build());
+
+        //Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .patch(BOOK_API.concat("/10"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        //Verification
+        mvc.perform(request).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Patch Book With Stale If-Match Test")
+    public void patchBookStaleIfMatchTest() throws Exception {
+        //Scenery
+        BDDMockito.given(bookService.patch(Mockito.eq(10L), Mockito.any(Book.class), Mockito.eq(3L))).willReturn(false);
+        BDDMockito.given(bookService.getVersion(10L)).willReturn(Optional.of(4L));
+        String json = new ObjectMapper().writeValueAsString(BookDTO.builder().author("New Author").build());
+
+        //Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .patch(BOOK_API.concat("/10"))
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        //Verification
+        mvc.perform(request)
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("errors[0]").value("Book was modified"));
+    }
+
+    @Test
+    @DisplayName("Patch Book Listed In A Multi-Tag If-Match Test")
+    public void patchBookMultiTagIfMatchTest() throws Exception {
+        //Scenery
+        BDDMockito.given(bookService.getVersion(10L)).willReturn(Optional.of(4L));
+        BDDMockito.given(bookService.patch(Mockito.eq(10L), Mockito.any(Book.class), Mockito.eq(4L))).willReturn(true);
+        String json = new ObjectMapper().writeValueAsString(BookDTO.builder().author("New Author").build());
+
+        //Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .patch(BOOK_API.concat("/10"))
+                .header(HttpHeaders.IF_MATCH, "\"3\", W/\"4\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        //Verification
+        mvc.perform(request).andExpect(status().isNoContent());
+    }
+
+    @Test
+    @DisplayName("Don't Patch Book With Malformed If-Match Test")
+    public void patchBookMalformedIfMatchTest() throws Exception {
+        //Scenery
+        String json = new ObjectMapper().writeValueAsString(BookDTO.builder().author("New Author").build());
+
+        //Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .patch(BOOK_API.concat("/10"))
+                .header(HttpHeaders.IF_MATCH, "3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        //Verification
+        mvc.perform(request).andExpect(status().isBadRequest());
+        Mockito.verify(bookService, Mockito.never()).patch(Mockito.anyLong(), Mockito.any(Book.class), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Don't Patch Book Without Fields Test")
+    public void patchBookWithoutFieldsTest() throws Exception {
+        //Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .patch(BOOK_API.concat("/10"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}");
+
+        //Verification
+        mvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Nothing to update"));
+        Mockito.verify(bookService, Mockito.never()).patch(Mockito.anyLong(), Mockito.any(Book.class), Mockito.any());
+    }
+
     @Test
     @DisplayName("updateBookTest")
     public void updateBookTest() throws Exception {
@@ -213,6 +361,29 @@ public class BookControllerTest {
                 .andExpect(jsonPath("isbn").value(createNewBookDTO().getIsbn()));
     }
 
+    @Test
+    @DisplayName("Don't Update Book To Registered Isbn Test")
+    public void updateBookWithDuplicateIsbnTest() throws Exception {
+        //Scenery
+        Long id = 10L;
+        BDDMockito.given(bookService.getById(id)).willReturn(Optional.of(Book.builder().id(id).build()));
+        BDDMockito.given(bookService.update(Mockito.any(Book.class)))
+                .willThrow(new BusinessException("Isbn already registered"));
+        String json = new ObjectMapper().writeValueAsString(createNewBookDTO());
+        //Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .put(BOOK_API.concat("/" + id))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+        //Verification
+        mvc
+                .perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors", hasSize(1)))
+                .andExpect(jsonPath("errors[0]").value("Isbn already registered"));
+    }
+
     @Test
     @DisplayName("Don't Update Book Nonexistent Test")
     public void updateBookNonExistentTest() throws Exception {
@@ -235,6 +406,150 @@ public class BookControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Tag Book With Its Version")
+    public void getBookETagTest() throws Exception {
+        //Scenery
+        BDDMockito.given(bookService.getById(1L)).willReturn(Optional.of(Book.builder().id(1L).isbn("123").version(3L).build()));
+
+        //Execution and Verification
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    @Test
+    @DisplayName("Answer Not Modified Without Loading Book")
+    public void getBookNotModifiedTest() throws Exception {
+        //Scenery
+        BDDMockito.given(bookService.getVersion(1L)).willReturn(Optional.of(3L));
+
+        //Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("/1"))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .accept(MediaType.APPLICATION_JSON);
+
+        //Verification
+        mvc.perform(request)
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+        Mockito.verify(bookService, Mockito.never()).getById(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("Load Book When Its Version Changed")
+    public void getBookModifiedTest() throws Exception {
+        //Scenery
+        BDDMockito.given(bookService.getVersion(1L)).willReturn(Optional.of(4L));
+        BDDMockito.given(bookService.getById(1L)).willReturn(Optional.of(Book.builder().id(1L).isbn("123").version(4L).build()));
+
+        //Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("/1"))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .accept(MediaType.APPLICATION_JSON);
+
+        //Verification
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("isbn").value("123"));
+    }
+
+    @Test
+    @DisplayName("Don't Update Book With Stale If-Match")
+    public void updateBookStaleIfMatchTest() throws Exception {
+        //Scenery
+        BDDMockito.given(bookService.getById(10L)).willReturn(Optional.of(Book.builder().id(10L).version(4L).build()));
+        String json = new ObjectMapper().writeValueAsString(createNewBookDTO());
+
+        //Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .put(BOOK_API.concat("/10"))
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        //Verification
+        mvc.perform(request)
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("errors[0]").value("Book was modified"));
+        Mockito.verify(bookService, Mockito.never()).update(Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Update Book With Current If-Match")
+    public void updateBookIfMatchTest() throws Exception {
+        //Scenery
+        BDDMockito.given(bookService.getById(10L)).willReturn(Optional.of(Book.builder().id(10L).version(3L).build()));
+        BDDMockito.given(bookService.update(Mockito.any(Book.class))).willAnswer(invocation -> {
+            Book updated = invocation.getArgument(0);
+            updated.setVersion(4L);
+            return updated;
+        });
+        String json = new ObjectMapper().writeValueAsString(createNewBookDTO());
+
+        //Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .put(BOOK_API.concat("/10"))
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        //Verification
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    @DisplayName("Concurrent Update Fails The Precondition")
+    public void updateBookConcurrentlyTest() throws Exception {
+        //Scenery
+        BDDMockito.given(bookService.getById(10L)).willReturn(Optional.of(Book.builder().id(10L).version(3L).build()));
+        BDDMockito.given(bookService.update(Mockito.any(Book.class)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Book.class, 10L));
+        String json = new ObjectMapper().writeValueAsString(createNewBookDTO());
+
+        //Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .put(BOOK_API.concat("/10"))
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        //Verification
+        mvc.perform(request)
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @DisplayName("Find Books Not Modified")
+    public void findBooksNotModifiedTest() throws Exception {
+        //Scenery
+        PageImpl<Book> page = new PageImpl<>(Arrays.asList(Book.builder().id(1L).isbn("123").version(0L).build()),
+                PageRequest.of(0, 100), 1);
+        BDDMockito.given(bookService.find(Mockito.any(Book.class), Mockito.any(Pageable.class), Mockito.eq(false))).willReturn(page);
+        String etag = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?page=0&size=100")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("?page=0&size=100"))
+                .header(HttpHeaders.IF_NONE_MATCH, etag);
+
+        //Verification
+        mvc.perform(request)
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     @DisplayName("Find Books Test")
     public void findBooksTest() throws Exception {
@@ -247,7 +562,7 @@ public class BookControllerTest {
                 .author(createNewBook().getAuthor())
                 .build();
 
-        BDDMockito.given(bookService.find(Mockito.any(Book.class), Mockito.any(Pageable.class) ))
+        BDDMockito.given(bookService.find(Mockito.any(Book.class), Mockito.any(Pageable.class), Mockito.eq(false)))
                 .willReturn(new PageImpl<Book>(Arrays.asList(book), PageRequest.of(0,100),1));
 
         String queryString = String.format("?title=%s&author=%s&page=0&size=100",
@@ -264,11 +579,319 @@ mvc
         .andExpect(status().isOk())
         .andExpect(jsonPath("content", Matchers.hasSize(1)))
         .andExpect(jsonPath("totalElements").value(1))
+        .andExpect(jsonPath("totalApproximate").value(false))
         .andExpect(jsonPath("pageable.pageSize").value(100))
         .andExpect(jsonPath("pageable.pageNumber").value(0));
 
     }
 
+    @Test
+    @DisplayName("Find Books With Approximate Total")
+    public void findBooksApproximateTotalTest() throws Exception {
+        //Scenery
+        Book book = Book.builder().id(1L).title("Drink").author("Jon").isbn("001").version(0L).build();
+        BDDMockito.given(bookService.find(Mockito.any(Book.class), Mockito.any(Pageable.class), Mockito.eq(true)))
+                .willReturn(new CountedPage<>(Arrays.asList(book), PageRequest.of(0, 1), 40, true));
+
+        //Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("?author=Jon&page=0&size=1&approximate=true"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        //Verification
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("totalElements").value(40))
+                .andExpect(jsonPath("totalApproximate").value(true));
+        Mockito.verify(bookService, Mockito.never()).find(Mockito.any(Book.class), Mockito.any(Pageable.class), Mockito.eq(false));
+    }
+
+    @Test
+    @DisplayName("Create Books In Batch")
+    public void createBatchTest() throws Exception {
+        BookDTO first = BookDTO.builder().author("João").title("O Menino da Vila").isbn("001").build();
+        BookDTO invalid = BookDTO.builder().author("João").isbn("002").build();
+        BookDTO registered = BookDTO.builder().author("Maria").title("A Vila").isbn("003").build();
+        BookDTO repeated = BookDTO.builder().author("João").title("O Menino da Vila").isbn("001").build();
+
+        BDDMockito.given(bookService.saveAll(Mockito.anyList()))
+                .willReturn(Arrays.asList(Book.builder().id(10L).author("João").title("O Menino da Vila").isbn("001").build()));
+
+        String json = new ObjectMapper().writeValueAsString(Arrays.asList(first, invalid, registered, repeated));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(BOOK_API.concat("/batch"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("[0].status").value("CREATED"))
+                .andExpect(jsonPath("[0].id").value(10L))
+                .andExpect(jsonPath("[1].status").value("INVALID"))
+                .andExpect(jsonPath("[1].errors", hasSize(1)))
+                .andExpect(jsonPath("[2].status").value("DUPLICATE"))
+                .andExpect(jsonPath("[2].errors[0]").value("Isbn already registered"))
+                .andExpect(jsonPath("[3].status").value("DUPLICATE"))
+                .andExpect(jsonPath("[3].index").value(3));
+
+        Mockito.verify(bookService, Mockito.times(1)).saveAll(Mockito.argThat(books -> books.size() == 3));
+    }
+
+    @Test
+    @DisplayName("Find Books By Cursor Test")
+    public void findBooksByCursorTest() throws Exception {
+        Book first = Book.builder().id(1L).title("A").author("João").isbn("001").build();
+        Book second = Book.builder().id(2L).title("B").author("João").isbn("002").build();
+        BDDMockito.given(bookService.findAfter(Mockito.any(Book.class), Mockito.eq(Sort.Order.asc("title")),
+                        Mockito.isNull(), Mockito.eq(2)))
+                .willReturn(new SliceImpl<>(Arrays.asList(first, second), PageRequest.of(0, 2), true));
+
+        MvcResult result = mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API.concat("?cursor=&size=2&sort=title"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(2)))
+                .andExpect(jsonPath("size").value(2))
+                .andExpect(jsonPath("nextCursor").isNotEmpty())
+                .andExpect(jsonPath("totalElements").doesNotExist())
+                .andReturn();
+
+        String nextCursor = JsonPath.read(result.getResponse().getContentAsString(), "nextCursor");
+        BDDMockito.given(bookService.findAfter(Mockito.any(Book.class), Mockito.eq(Sort.Order.asc("title")),
+                        Mockito.argThat(last -> last != null && last.getId() == 2L && "B".equals(last.getTitle())), Mockito.eq(2)))
+                .willReturn(new SliceImpl<>(Collections.emptyList(), PageRequest.of(0, 2), false));
+
+        mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API.concat("?size=2&cursor=" + nextCursor))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(0)))
+                .andExpect(jsonPath("nextCursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Find Books By Cursor Past An Untitled Book Test")
+    public void findBooksByCursorPastUntitledBookTest() throws Exception {
+        Book untitled = Book.builder().id(1L).author("João").isbn("001").build();
+        BDDMockito.given(bookService.findAfter(Mockito.any(Book.class), Mockito.eq(Sort.Order.asc("title")),
+                        Mockito.isNull(), Mockito.eq(1)))
+                .willReturn(new SliceImpl<>(Collections.singletonList(untitled), PageRequest.of(0, 1), true));
+
+        MvcResult result = mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API.concat("?cursor=&size=1&sort=title"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String nextCursor = JsonPath.read(result.getResponse().getContentAsString(), "nextCursor");
+        BDDMockito.given(bookService.findAfter(Mockito.any(Book.class), Mockito.eq(Sort.Order.asc("title")),
+                        Mockito.argThat(last -> last != null && last.getId() == 1L && last.getTitle() == null), Mockito.eq(1)))
+                .willReturn(new SliceImpl<>(Collections.emptyList(), PageRequest.of(0, 1), false));
+
+        mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API.concat("?size=1&cursor=" + nextCursor))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("Find Books By Cursor Of Another Filter Test")
+    public void findBooksByCursorOfAnotherFilterTest() throws Exception {
+        Book first = Book.builder().id(1L).title("A").author("João").isbn("001").build();
+        BDDMockito.given(bookService.findAfter(Mockito.any(Book.class), Mockito.eq(Sort.Order.asc("id")),
+                        Mockito.isNull(), Mockito.eq(1)))
+                .willReturn(new SliceImpl<>(Collections.singletonList(first), PageRequest.of(0, 1), true));
+
+        MvcResult result = mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API.concat("?cursor=&size=1&author=João"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String nextCursor = JsonPath.read(result.getResponse().getContentAsString(), "nextCursor");
+        mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API.concat("?size=1&author=Maria&cursor=" + nextCursor))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Cursor was issued for another filter"));
+    }
+
+    @Test
+    @DisplayName("Find Books By Invalid Cursor Test")
+    public void findBooksByInvalidCursorTest() throws Exception {
+        mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API.concat("?cursor=not-a-cursor"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Invalid cursor"));
+    }
+
+    @Test
+    @DisplayName("Export Books As NDJSON Test")
+    public void exportNdjsonTest() throws Exception {
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<Book> action = invocation.getArgument(0);
+            action.accept(Book.builder().id(1L).title("A").author("João").isbn("001").build());
+            action.accept(Book.builder().id(2L).title("B, the sequel").author("João").isbn("002").build());
+            return null;
+        }).given(bookService).forEachBook(Mockito.any());
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/export")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().bytes((
+                        "{\"id\":1,\"title\":\"A\",\"author\":\"João\",\"isbn\":\"001\"}\n" +
+                        "{\"id\":2,\"title\":\"B, the sequel\",\"author\":\"João\",\"isbn\":\"002\"}\n").getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("Export Streams Under The Export Timeout Test")
+    public void exportTimeoutTest() throws Exception {
+        //Scenary
+        BDDMockito.willDoNothing().given(bookService).forEachBook(Mockito.any());
+
+        //Execution
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/export?format=csv")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //Verification
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofHours(1).toMillis());
+        mvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Export Books As CSV Test")
+    public void exportCsvTest() throws Exception {
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<Book> action = invocation.getArgument(0);
+            action.accept(Book.builder().id(1L).title("A").author("João").isbn("001").build());
+            action.accept(Book.builder().id(2L).title("B, \"the\" sequel").author("João").isbn("002").build());
+            return null;
+        }).given(bookService).forEachBook(Mockito.any());
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/export?format=csv")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().bytes("id,title,author,isbn\n1,A,João,001\n2,\"B, \"\"the\"\" sequel\",João,002\n"
+                        .getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("Export Books Unsupported Format Test")
+    public void exportUnsupportedFormatTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/export?format=xml")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Import Books From NDJSON Test")
+    public void importNdjsonTest() throws Exception {
+        BDDMockito.given(bookService.saveAll(Mockito.anyList()))
+                .willReturn(Arrays.asList(Book.builder().id(10L).author("João").title("A").isbn("001").build()));
+        String body = "{\"title\":\"A\",\"author\":\"João\",\"isbn\":\"001\"}\n"
+                + "{\"title\":\"B\",\"author\":\"João\"}\n"
+                + "{broken\n"
+                + "{\"title\":\"C\",\"author\":\"João\",\"isbn\":\"003\"}\n";
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.post(BOOK_API.concat("/import"))
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] events = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+
+        assertThat(events).hasSize(5);
+        assertThat(JsonPath.<String>read(events[0], "status")).isEqualTo("INVALID");
+        assertThat(JsonPath.<Integer>read(events[0], "index")).isEqualTo(2);
+        assertThat(JsonPath.<String>read(events[1], "errors[0]")).isEqualTo("Malformed JSON record");
+        assertThat(JsonPath.<String>read(events[2], "status")).isEqualTo("DUPLICATE");
+        assertThat(JsonPath.<String>read(events[2], "isbn")).isEqualTo("003");
+        assertThat(JsonPath.<Integer>read(events[3], "created")).isEqualTo(1);
+        assertThat(JsonPath.<Boolean>read(events[3], "done")).isFalse();
+        assertThat(JsonPath.<Integer>read(events[4], "records")).isEqualTo(4);
+        assertThat(JsonPath.<Integer>read(events[4], "invalid")).isEqualTo(2);
+        assertThat(JsonPath.<Integer>read(events[4], "duplicates")).isEqualTo(1);
+        assertThat(JsonPath.<Boolean>read(events[4], "done")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Import Streams Under The Import Timeout Test")
+    public void importTimeoutTest() throws Exception {
+        //Scenary
+        String body = "title,author,isbn\n";
+
+        //Execution
+        MvcResult ndjson = mvc.perform(MockMvcRequestBuilders.post(BOOK_API.concat("/import"))
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult csv = mvc.perform(MockMvcRequestBuilders.post(BOOK_API.concat("/import"))
+                        .contentType("text/csv")
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //Verification
+        assertThat(ndjson.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofHours(1).toMillis());
+        assertThat(csv.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofHours(1).toMillis());
+        mvc.perform(asyncDispatch(ndjson)).andExpect(status().isOk());
+        mvc.perform(asyncDispatch(csv)).andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Import Books From CSV In Chunks Test")
+    public void importCsvTest() throws Exception {
+        BDDMockito.given(bookService.saveAll(Mockito.anyList())).willAnswer(invocation -> invocation.getArgument(0));
+        StringBuilder body = new StringBuilder("title,author,isbn\n");
+        for (int i = 0; i < 1200; i++) {
+            body.append("Title ").append(i).append(",João,").append(i).append('\n');
+        }
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.post(BOOK_API.concat("/import"))
+                        .contentType("text/csv")
+                        .content(body.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] events = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+
+        assertThat(events).hasSize(4);
+        assertThat(JsonPath.<Integer>read(events[0], "created")).isEqualTo(500);
+        assertThat(JsonPath.<Integer>read(events[3], "created")).isEqualTo(1200);
+        Mockito.verify(bookService, Mockito.times(3)).saveAll(Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("Import Books From CSV Without Header Test")
+    public void importCsvWithoutHeaderTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post(BOOK_API.concat("/import"))
+                        .contentType("text/csv")
+                        .content("Title,João,001\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("CSV header must contain title, author and isbn"));
+    }
+
     private BookDTO createNewBookDTO() {
        return BookDTO.builder().author("João").title("O Menino da Vila").isbn("001").build();
     }
@@ -0,0 +1,109 @@
+package com.wmdm.test.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wmdm.test.DTOs.BookDTO;
+import com.wmdm.test.api.exceptions.BusinessException;
+import com.wmdm.test.model.entity.Book;
+import com.wmdm.test.service.BookService;
+import com.wmdm.test.service.writebehind.BookCreateQueue;
+import com.wmdm.test.service.writebehind.BookCreateTimeoutException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(BookController.class)
+@AutoConfigureMockMvc
+public class BookWriteBehindControllerTest {
+
+    static String BOOK_API = "/api/books";
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    BookService bookService;
+
+    @MockBean
+    BookCreateQueue createQueue;
+
+    @Test
+    @DisplayName("Create Book Through The Write-Behind Queue")
+    public void createThroughQueueTest() throws Exception {
+        //Scenary
+        Book saved = Book.builder().id(10L).title("My Life").author("Wedson").isbn("123").build();
+        BDDMockito.given(createQueue.save(Mockito.any(Book.class))).willReturn(saved);
+
+        //Execution and Verification
+        mvc.perform(createRequest())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("id").value(10L));
+        Mockito.verify(bookService, Mockito.never()).save(Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Return Service Unavailable When The Write-Behind Queue Is Full")
+    public void rejectWhenQueueFullTest() throws Exception {
+        //Scenary
+        BDDMockito.given(createQueue.save(Mockito.any(Book.class)))
+                .willThrow(new RejectedExecutionException("Book create queue is full"));
+
+        //Execution and Verification
+        mvc.perform(createRequest())
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("errors[0]").value("Too many pending creates, retry later"));
+    }
+
+    @Test
+    @DisplayName("Return Service Unavailable When The Queued Create Times Out")
+    public void createTimeoutTest() throws Exception {
+        //Scenary
+        BDDMockito.given(createQueue.save(Mockito.any(Book.class)))
+                .willThrow(new BookCreateTimeoutException("Timed out waiting for the create of 123"));
+
+        //Execution and Verification
+        mvc.perform(createRequest())
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("errors[0]").value("Book create timed out, retry later"));
+    }
+
+    @Test
+    @DisplayName("Return Bad Request For A Duplicate Isbn Queued Create")
+    public void duplicateIsbnTest() throws Exception {
+        //Scenary
+        BDDMockito.given(createQueue.save(Mockito.any(Book.class)))
+                .willThrow(new BusinessException("Isbn already registered"));
+
+        //Execution and Verification
+        mvc.perform(createRequest())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Isbn already registered"));
+    }
+
+    private static MockHttpServletRequestBuilder createRequest() throws Exception {
+        String json = new ObjectMapper().writeValueAsString(
+                BookDTO.builder().title("My Life").author("Wedson").isbn("123").build());
+        return MockMvcRequestBuilders.post(BOOK_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+    }
+}
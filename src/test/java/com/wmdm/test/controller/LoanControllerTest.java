@@ -24,6 +24,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -31,7 +34,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
-@WebMvcTest
+@WebMvcTest(LoanController.class)
 @AutoConfigureMockMvc
 public class LoanControllerTest {
 
@@ -117,6 +120,63 @@ public class LoanControllerTest {
 
 
 
+    @Test
+    @DisplayName("Register Batch Of Loans")
+    public void saveBatch() throws Exception {
+        List<LoanDTO> dtos = Arrays.asList(
+                LoanDTO.builder().isbn("123").custumer("Wedson").build(),
+                LoanDTO.builder().isbn("999").custumer("Maria").build(),
+                LoanDTO.builder().isbn("456").custumer("Joao").build(),
+                LoanDTO.builder().isbn("123").custumer("Ana").build());
+        String json = new ObjectMapper().writeValueAsString(dtos);
+        BDDMockito.given(bookService.findByIsbns(Mockito.anyCollection())).willReturn(Arrays.asList(
+                Book.builder().id(1L).isbn("123").build(),
+                Book.builder().id(2L).isbn("456").build()));
+        BDDMockito.given(loanService.saveAll(Mockito.anyList())).willAnswer(invocation -> {
+            List<Loan> loans = invocation.getArgument(0);
+            Loan loan = loans.get(0);
+            loan.setId(10L);
+            return Collections.singletonList(loan);
+        });
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(LOAN_API.concat("/batch"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(4)))
+                .andExpect(jsonPath("[0].status").value("LOANED"))
+                .andExpect(jsonPath("[0].id").value(10))
+                .andExpect(jsonPath("[1].status").value("BOOK_NOT_FOUND"))
+                .andExpect(jsonPath("[1].errors[0]").value("Book not found for passed isbn"))
+                .andExpect(jsonPath("[2].status").value("ALREADY_LOANED"))
+                .andExpect(jsonPath("[2].errors[0]").value("Book already loaned"))
+                .andExpect(jsonPath("[3].index").value(3))
+                .andExpect(jsonPath("[3].status").value("ALREADY_LOANED"));
+        Mockito.verify(bookService, Mockito.never()).getBookByIsbn(Mockito.anyString());
+    }
+
+    @Test
+    @DisplayName("Return Loaned Book")
+    public void returnBookTest() throws Exception {
+        BDDMockito.given(loanService.returnBook(1L)).willReturn(true);
+
+        mvc.perform(MockMvcRequestBuilders.put(LOAN_API.concat("/1/return")))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @DisplayName("Return Book Without Active Loan")
+    public void returnBookWithoutActiveLoanTest() throws Exception {
+        BDDMockito.given(loanService.returnBook(1L)).willReturn(false);
+
+        mvc.perform(MockMvcRequestBuilders.put(LOAN_API.concat("/1/return")))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("errors[0]").value("Active loan not found"));
+    }
+
     private Loan createLoan() {
         return Loan.builder().id(1L).isbn("123").custumer("Wedson").build();
     }
@@ -0,0 +1,75 @@
+package com.wmdm.test.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wmdm.test.DTOs.BookDTO;
+import com.wmdm.test.DTOs.LoanDTO;
+import com.wmdm.test.model.repository.BookRepository;
+import com.wmdm.test.model.repository.LoanRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+public class PrometheusEndpointTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @AfterEach
+    public void tearDown(){
+        loanRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Scrape Metrics Of Every Layer")
+    public void scrapeMetrics() throws Exception {
+        //Scenary
+        ObjectMapper mapper = new ObjectMapper();
+        BookDTO book = BookDTO.builder().title("My Life").author("Wedson").isbn("metrics-123").build();
+        mvc.perform(MockMvcRequestBuilders.post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(book)))
+                .andExpect(status().isCreated());
+        mvc.perform(MockMvcRequestBuilders.get("/api/books").param("author", "wedson"))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.post("/api/loan")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(LoanDTO.builder().isbn("metrics-123").custumer("Maria").build())))
+                .andExpect(status().isOk());
+
+        //Execution and Verification
+        mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("uri=\"/api/books\"")))
+                .andExpect(content().string(containsString("book_service_seconds_bucket{")))
+                .andExpect(content().string(containsString("method=\"save\"")))
+                .andExpect(content().string(containsString("loan_service_seconds_count{")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+                .andExpect(content().string(containsString("repository=\"BookRepository\"")))
+                .andExpect(content().string(containsString("hibernate_sessions_open_total")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")));
+    }
+}
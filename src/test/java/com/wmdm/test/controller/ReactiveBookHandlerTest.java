@@ -0,0 +1,130 @@
+package com.wmdm.test.controller;
+
+import com.wmdm.test.DTOs.BookDTO;
+import com.wmdm.test.model.entity.Book;
+import com.wmdm.test.model.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.netty.DisposableServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"book.reactive.enabled=true", "book.reactive.port=0"})
+@ActiveProfiles("test")
+public class ReactiveBookHandlerTest {
+
+    @Autowired
+    DisposableServer reactiveCatalogServer;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    WebTestClient client;
+
+    @BeforeEach
+    public void setUp(){
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + reactiveCatalogServer.port()).build();
+    }
+
+    @AfterEach
+    public void tearDown(){
+        bookRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Get Book By Id From The Reactive Server")
+    public void getBookTest(){
+        //Scenary
+        Book book = bookRepository.save(Book.builder().title("Reactive").author("Wedson").isbn("r-1").build());
+
+        //Execution and Verification
+        client.get().uri("/api/books/{id}", book.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"" + book.getVersion() + "\"")
+                .expectBody()
+                .jsonPath("id").isEqualTo(book.getId())
+                .jsonPath("title").isEqualTo("Reactive")
+                .jsonPath("isbn").isEqualTo("r-1");
+    }
+
+    @Test
+    @DisplayName("Return Not Found When Reactive Book Is Missing")
+    public void bookNotFoundTest(){
+        //Execution and Verification
+        client.get().uri("/api/books/{id}", 999_999)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("errors[0]").isEqualTo("Book not found");
+
+        client.get().uri("/api/books/abc")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Stream Matching Books As NDJSON In Id Order")
+    public void streamBooksTest(){
+        //Scenary
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            books.add(Book.builder().title("Title " + i).author(i % 3 == 0 ? "Wedson Martins" : "Maria").isbn("stream-" + i).build());
+        }
+        bookRepository.saveAll(books);
+
+        //Execution
+        List<BookDTO> result = client.get().uri("/api/books?author=WEDSON")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(BookDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        //Verification
+        assertThat(result).hasSize(10);
+        assertThat(result).extracting(BookDTO::getAuthor).containsOnly("Wedson Martins");
+        List<Long> ids = result.stream().map(BookDTO::getId).collect(Collectors.toList());
+        assertThat(ids).isSorted();
+    }
+
+    @Test
+    @DisplayName("Page Reactive Search With Page And Size")
+    public void pageBooksTest(){
+        //Scenary
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            books.add(Book.builder().title("100% Title " + i).author("Author").isbn("page-" + i).build());
+        }
+        books.add(Book.builder().title("Other").author("Author").isbn("page-other").build());
+        bookRepository.saveAll(books);
+
+        //Execution and Verification
+        client.get().uri("/api/books?title={title}&page=1&size=2", "100%")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BookDTO.class)
+                .hasSize(2)
+                .value(page -> assertThat(page).extracting(BookDTO::getIsbn).containsExactly("page-2", "page-3"));
+
+        client.get().uri("/api/books?size=0")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("errors[0]").isEqualTo("Invalid page request");
+    }
+}
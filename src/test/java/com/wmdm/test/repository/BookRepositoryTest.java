@@ -8,10 +8,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -80,6 +87,167 @@ public class BookRepositoryTest {
         assertThat(exist).isFalse();
     }
 
+    @Test
+    @DisplayName("Find Registered Isbns")
+    public void findRegisteredIsbns(){
+        //Scenary
+        entityManager.persist(Book.builder().author("Wedson").title("My Life").isbn("123").build());
+        entityManager.persist(Book.builder().author("Wedson").title("My Work").isbn("456").build());
+
+        //Execution
+        Set<String> registered = bookRepository.findRegisteredIsbns(Arrays.asList("123", "456", "789"));
+
+        //Verification
+        assertThat(registered).containsExactlyInAnyOrder("123", "456");
+    }
+
+    @Test
+    @DisplayName("Find By Isbn")
+    public void findByIsbnTest(){
+        //Scenary
+        Book book = Book.builder().author("Wedson").title("My Life").isbn("123").build();
+        entityManager.persist(book);
+
+        //Execution
+        Optional<Book> found = bookRepository.findByIsbn("123");
+        Optional<Book> missing = bookRepository.findByIsbn("456");
+
+        //Verification
+        assertThat(found).contains(book);
+        assertThat(missing).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Patch Book In One Statement")
+    public void patchTest(){
+        //Scenary
+        Book book = entityManager.persistAndFlush(Book.builder().author("Wedson").title("My Life").isbn("123").build());
+        entityManager.clear();
+
+        //Execution
+        int patched = bookRepository.patch(book.getId(), "My New Life", null, null, null);
+        int stale = bookRepository.patch(book.getId(), null, "Maria", null, 0L);
+        int missing = bookRepository.patch(book.getId() + 1, "Other", null, null, null);
+        Book found = entityManager.find(Book.class, book.getId());
+
+        //Verification
+        assertThat(patched).isEqualTo(1);
+        assertThat(stale).isZero();
+        assertThat(missing).isZero();
+        assertThat(found.getTitle()).isEqualTo("My New Life");
+        assertThat(found.getAuthor()).isEqualTo("Wedson");
+        assertThat(found.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Delete Book By Id In One Statement")
+    public void deleteBookByIdTest(){
+        //Scenary
+        Book book = entityManager.persistAndFlush(Book.builder().author("Wedson").title("My Life").isbn("123").build());
+        entityManager.clear();
+
+        //Execution
+        int deleted = bookRepository.deleteBookById(book.getId());
+        int again = bookRepository.deleteBookById(book.getId());
+
+        //Verification
+        assertThat(deleted).isEqualTo(1);
+        assertThat(again).isZero();
+        assertThat(entityManager.find(Book.class, book.getId())).isNull();
+    }
+
+    @Test
+    @DisplayName("Find Version By Id")
+    public void findVersionByIdTest(){
+        //Scenary
+        Book book = entityManager.persistAndFlush(Book.builder().author("Wedson").title("My Life").isbn("123").build());
+        book.setTitle("My New Life");
+        entityManager.flush();
+
+        //Execution
+        Optional<Long> version = bookRepository.findVersionById(book.getId());
+        Optional<Long> missing = bookRepository.findVersionById(book.getId() + 1);
+
+        //Verification
+        assertThat(version).contains(1L);
+        assertThat(missing).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Find Books By Isbns In One Query")
+    public void findByIsbnInTest(){
+        //Scenary
+        Book first = entityManager.persist(Book.builder().author("Wedson").title("My Life").isbn("123").build());
+        Book second = entityManager.persist(Book.builder().author("Maria").title("Her Life").isbn("456").build());
+
+        //Execution
+        List<Book> found = bookRepository.findByIsbnIn(Arrays.asList("123", "456", "789"));
+
+        //Verification
+        assertThat(found).containsExactlyInAnyOrder(first, second);
+    }
+
+    @Test
+    @DisplayName("Find All After Seeks By Sort Key And Id")
+    public void findAllAfterTest(){
+        //Scenary
+        Book b1 = entityManager.persist(Book.builder().author("Wedson").title("B").isbn("1").build());
+        Book a1 = entityManager.persist(Book.builder().author("Wedson").title("A").isbn("2").build());
+        Book b2 = entityManager.persist(Book.builder().author("Wedson").title("B").isbn("3").build());
+        Book c1 = entityManager.persist(Book.builder().author("Other").title("C").isbn("4").build());
+        Example<Book> all = Example.of(new Book());
+        Sort.Order byTitle = Sort.Order.asc("title");
+
+        //Execution
+        List<Book> first = bookRepository.findAllAfter(all, byTitle, null, 2);
+        List<Book> second = bookRepository.findAllAfter(all, byTitle, first.get(1), 2);
+        List<Book> byAuthor = bookRepository.findAllAfter(Example.of(Book.builder().author("Wedson").build()),
+                Sort.Order.desc("id"), b2, 10);
+
+        //Verification
+        assertThat(first).containsExactly(a1, b1);
+        assertThat(second).containsExactly(b2, c1);
+        assertThat(byAuthor).containsExactly(a1, b1);
+    }
+
+    @Test
+    @DisplayName("Find All After Seeks Past Books Without A Sort Key")
+    public void findAllAfterNullKeyTest(){
+        //Scenary
+        Book untitled1 = entityManager.persist(Book.builder().author("Wedson").isbn("1").build());
+        Book a1 = entityManager.persist(Book.builder().author("Wedson").title("A").isbn("2").build());
+        Book untitled2 = entityManager.persist(Book.builder().author("Wedson").isbn("3").build());
+        Book b1 = entityManager.persist(Book.builder().author("Wedson").title("B").isbn("4").build());
+        Example<Book> all = Example.of(new Book());
+
+        //Execution
+        List<Book> ascending = bookRepository.findAllAfter(all, Sort.Order.asc("title"), untitled1, 10);
+        List<Book> descending = bookRepository.findAllAfter(all, Sort.Order.desc("title"), a1, 10);
+        List<Book> descendingFromNull = bookRepository.findAllAfter(all, Sort.Order.desc("title"), untitled2, 10);
+
+        //Verification
+        assertThat(ascending).containsExactly(untitled2, a1, b1);
+        assertThat(descending).containsExactly(untitled2, untitled1);
+        assertThat(descendingFromNull).containsExactly(untitled1);
+    }
+
+    @Test
+    @DisplayName("Stream All In Id Order")
+    public void streamAllTest(){
+        //Scenary
+        Book first = entityManager.persist(Book.builder().author("Wedson").title("My Life").isbn("123").build());
+        Book second = entityManager.persist(Book.builder().author("Wedson").title("My Work").isbn("456").build());
+
+        //Execution
+        List<Book> streamed;
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            streamed = books.collect(Collectors.toList());
+        }
+
+        //Verification
+        assertThat(streamed).containsExactly(first, second);
+    }
+
     @Test
     @DisplayName("Find By Id Test")
     public void findByIdTest(){
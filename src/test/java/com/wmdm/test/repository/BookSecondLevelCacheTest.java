@@ -0,0 +1,154 @@
+package com.wmdm.test.repository;
+
+import com.wmdm.test.model.entity.Book;
+import com.wmdm.test.model.repository.BookRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookSecondLevelCacheTest {
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    public void setUp(){
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    public void tearDown(){
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Serve Id Lookups From Second Level Cache")
+    public void idLookupsHitCache(){
+        //Scenary
+        Book book = bookRepository.save(Book.builder().author("Wedson").title("My Life").isbn("123").build());
+        statistics.clear();
+
+        //Execution
+        Book first = bookRepository.findById(book.getId()).get();
+        Book second = bookRepository.findById(book.getId()).get();
+
+        //Verification
+        assertThat(first.getTitle()).isEqualTo("My Life");
+        assertThat(second.getTitle()).isEqualTo("My Life");
+        assertThat(statistics.getDomainDataRegionStatistics(Book.CACHE_REGION).getHitCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Serve Repeated Isbn Lookups From Natural Id Cache")
+    public void isbnLookupsHitCache(){
+        //Scenary
+        bookRepository.save(Book.builder().author("Wedson").title("My Life").isbn("123").build());
+        bookRepository.findByNaturalId("123");
+        statistics.clear();
+
+        //Execution
+        Book found = bookRepository.findByNaturalId("123").get();
+
+        //Verification
+        assertThat(found.getTitle()).isEqualTo("My Life");
+        assertThat(statistics.getNaturalIdCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getNaturalIdQueryExecutionCount()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Keep Cache Coherent On Update And Delete")
+    public void cacheFollowsWrites(){
+        //Scenary
+        Book book = bookRepository.save(Book.builder().author("Wedson").title("My Life").isbn("123").build());
+        Book loaded = bookRepository.findById(book.getId()).get();
+
+        //Execution
+        loaded.setTitle("My New Life");
+        loaded.setIsbn("456");
+        bookRepository.save(loaded);
+        Book updated = bookRepository.findById(book.getId()).get();
+        boolean oldIsbnFound = bookRepository.findByNaturalId("123").isPresent();
+        Book byNewIsbn = bookRepository.findByNaturalId("456").get();
+        bookRepository.delete(updated);
+
+        //Verification
+        assertThat(updated.getTitle()).isEqualTo("My New Life");
+        assertThat(oldIsbnFound).isFalse();
+        assertThat(byNewIsbn.getId()).isEqualTo(book.getId());
+        assertThat(bookRepository.findById(book.getId())).isEmpty();
+        assertThat(bookRepository.findByNaturalId("456")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Keep Other Books Cached On Patch And Delete By Id")
+    public void bulkWritesEvictOnlyTheirBook(){
+        //Scenary
+        Book book = bookRepository.save(Book.builder().author("Wedson").title("My Life").isbn("123").build());
+        Book other = bookRepository.save(Book.builder().author("Wedson").title("My Work").isbn("456").build());
+        bookRepository.findById(book.getId());
+        bookRepository.findById(other.getId());
+        bookRepository.findByNaturalId("456");
+
+        //Execution
+        bookRepository.patch(book.getId(), null, null, "789", null);
+        statistics.clear();
+        Book otherById = bookRepository.findById(other.getId()).get();
+        Book otherByIsbn = bookRepository.findByNaturalId("456").get();
+        boolean oldIsbnFound = bookRepository.findByNaturalId("123").isPresent();
+        Book byNewIsbn = bookRepository.findByNaturalId("789").get();
+        bookRepository.deleteBookById(book.getId());
+        boolean deletedFound = bookRepository.findByNaturalId("789").isPresent();
+
+        //Verification
+        assertThat(otherById.getTitle()).isEqualTo("My Work");
+        assertThat(otherByIsbn.getId()).isEqualTo(other.getId());
+        assertThat(statistics.getDomainDataRegionStatistics(Book.CACHE_REGION).getHitCount()).isGreaterThanOrEqualTo(2);
+        assertThat(statistics.getNaturalIdCacheHitCount()).isGreaterThanOrEqualTo(1);
+        assertThat(oldIsbnFound).isFalse();
+        assertThat(byNewIsbn.getId()).isEqualTo(book.getId());
+        assertThat(deletedFound).isFalse();
+    }
+
+    @Test
+    @DisplayName("Evict Cached Book On Patch And Delete By Id")
+    public void cacheFollowsBulkWrites(){
+        //Scenary
+        Book book = bookRepository.save(Book.builder().author("Wedson").title("My Life").isbn("123").build());
+        bookRepository.findById(book.getId());
+
+        //Execution
+        bookRepository.patch(book.getId(), "My New Life", null, null, null);
+        Book patched = bookRepository.findById(book.getId()).get();
+        bookRepository.deleteBookById(book.getId());
+
+        //Verification
+        assertThat(patched.getTitle()).isEqualTo("My New Life");
+        assertThat(patched.getVersion()).isEqualTo(1L);
+        assertThat(bookRepository.findById(book.getId())).isEmpty();
+    }
+}
@@ -0,0 +1,80 @@
+package com.wmdm.test.repository;
+
+import com.wmdm.test.model.entity.Loan;
+import com.wmdm.test.model.repository.LoanRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class LoanRepositoryTest {
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Only One Active Loan Per Isbn")
+    public void oneActiveLoanPerIsbn(){
+        //Scenary
+        loanRepository.saveAndFlush(Loan.builder().isbn("123").activeIsbn("123").custumer("Wedson").build());
+
+        //Execution
+        Throwable exception = Assertions.catchThrowable(() -> loanRepository.saveAndFlush(
+                Loan.builder().isbn("123").activeIsbn("123").custumer("Maria").build()));
+
+        //Verification
+        assertThat(exception).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @DisplayName("Returned Loans Free The Isbn")
+    public void returnedLoansFreeIsbn(){
+        //Scenary
+        Loan first = entityManager.persistAndFlush(Loan.builder().isbn("123").activeIsbn("123").custumer("Wedson").build());
+
+        //Execution
+        int returned = loanRepository.markReturned(first.getId());
+        int returnedAgain = loanRepository.markReturned(first.getId());
+        loanRepository.saveAndFlush(Loan.builder().isbn("123").activeIsbn("123").custumer("Maria").build());
+        entityManager.clear();
+
+        //Verification
+        assertThat(returned).isEqualTo(1);
+        assertThat(returnedAgain).isZero();
+        assertThat(loanRepository.findById(first.getId()).get().isReturned()).isTrue();
+        assertThat(loanRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Find Active Isbns")
+    public void findActiveIsbns(){
+        //Scenary
+        Loan returned = entityManager.persist(Loan.builder().isbn("123").activeIsbn("123").custumer("Wedson").build());
+        entityManager.persist(Loan.builder().isbn("456").activeIsbn("456").custumer("Maria").build());
+        entityManager.flush();
+        loanRepository.markReturned(returned.getId());
+
+        //Execution
+        Set<String> active = loanRepository.findActiveIsbns(Arrays.asList("123", "456", "789"));
+
+        //Verification
+        assertThat(active).containsExactly("456");
+    }
+}
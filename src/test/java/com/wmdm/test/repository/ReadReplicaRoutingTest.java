@@ -0,0 +1,329 @@
+package com.wmdm.test.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wmdm.test.DTOs.BookDTO;
+import com.wmdm.test.DTOs.LoanDTO;
+import com.wmdm.test.api.http.ReadYourWritesFilter;
+import com.wmdm.test.model.datasource.ReplicaSet;
+import com.wmdm.test.model.entity.Book;
+import com.wmdm.test.service.BookService;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import javax.sql.DataSource;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Routing between a primary and two replicas, all of them separate in-memory H2 databases.
+ * Nothing replicates between them, so each replica holds its own book, which tells which
+ * database served a read, and its own heartbeat row, which sets its lag.
+ */
+@SpringBootTest(properties = {
+        "book.read-replicas.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "book.read-replicas.urls=" + ReadReplicaRoutingTest.REPLICA_A + "," + ReadReplicaRoutingTest.REPLICA_B,
+        "book.read-replicas.max-lag=" + ReadReplicaRoutingTest.MAX_LAG_MILLIS + "ms",
+        "book.read-replicas.lag-check-interval=1h",
+        "book.read-replicas.sticky-window=1m",
+        "book.search-index.enabled=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ReadReplicaRoutingTest {
+
+    static final String REPLICA_A = "jdbc:h2:mem:routing-replica-a;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_B = "jdbc:h2:mem:routing-replica-b;DB_CLOSE_DELAY=-1";
+    static final long MAX_LAG_MILLIS = 300;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    ReplicaSet replicaSet;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    DataSource primaryDataSource;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    MockMvc mvc;
+
+    private static final AtomicInteger pageSize = new AtomicInteger(10);
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replicaA;
+    private JdbcTemplate replicaB;
+
+    @BeforeEach
+    public void setUp(){
+        primary = new JdbcTemplate(primaryDataSource);
+        replicaA = replica(REPLICA_A);
+        replicaB = replica(REPLICA_B);
+        insertBook(primary, 100_000, "Primary");
+        insertBook(replicaA, 100_001, "Replica A");
+        insertBook(replicaB, 100_002, "Replica B");
+        beat(replicaA, 0);
+        beat(replicaB, TimeUnit.HOURS.toMillis(1));
+        replicaSet.check();
+    }
+
+    @AfterEach
+    public void tearDown(){
+        primary.update("delete from loan");
+        primary.update("delete from book");
+        // the second level cache outlives this context, keep the rows deleted above out of it
+        entityManagerFactory.getCache().evict(Book.class);
+    }
+
+    @Test
+    @DisplayName("Read Only Service Reads Go To A Replica Within The Lag")
+    public void readFromCaughtUpReplica(){
+        //Execution
+        Set<String> served = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            served.addAll(findTitles());
+        }
+
+        //Verification
+        assertThat(replicaSet.healthy()).containsExactly("replica-0");
+        assertThat(served).containsExactly("Replica A");
+    }
+
+    @Test
+    @DisplayName("Replica Lag Is Measured Against The Last Heartbeat Of The Primary")
+    public void lagMeasuredAgainstPrimaryBeat(){
+        //Scenary
+        long lastBeat = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1);
+        primary.update("update replica_heartbeat set beat = ? where id = 1", lastBeat);
+        beat(replicaA, 0);
+        beat(replicaB, MAX_LAG_MILLIS + 1);
+
+        //Execution
+        replicaSet.check();
+
+        //Verification
+        assertThat(replicaSet.healthy()).containsExactly("replica-0");
+        assertThat(primaryBeat()).isGreaterThan(lastBeat);
+    }
+
+    @Test
+    @DisplayName("Replicas Within The Lag Take Turns")
+    public void replicasTakeTurns(){
+        //Scenary
+        beat(replicaB, 0);
+        replicaSet.check();
+
+        //Execution
+        Set<String> served = new HashSet<>();
+        served.addAll(findTitles());
+        served.addAll(findTitles());
+
+        //Verification
+        assertThat(served).containsExactlyInAnyOrder("Replica A", "Replica B");
+    }
+
+    @Test
+    @DisplayName("Reads Go To The Primary When Every Replica Lags")
+    public void readFromPrimaryWhenReplicasLag(){
+        //Scenary
+        beat(replicaA, TimeUnit.MINUTES.toMillis(1));
+        replicaSet.check();
+
+        //Execution
+        List<String> titles = findTitles();
+
+        //Verification
+        assertThat(replicaSet.healthy()).isEmpty();
+        assertThat(titles).containsExactly("Primary");
+    }
+
+    @Test
+    @DisplayName("Writes Go To The Primary And Leave Other Reads On The Replicas")
+    public void writeToPrimary(){
+        //Execution
+        bookService.save(Book.builder().title("Written").author("Routing").isbn("routing-written").build());
+        List<String> titles = findTitles();
+
+        //Verification
+        assertThat(primary.queryForObject("select count(*) from book where isbn = 'routing-written'", Long.class)).isEqualTo(1);
+        assertThat(replicaA.queryForObject("select count(*) from book where isbn = 'routing-written'", Long.class)).isZero();
+        assertThat(titles).containsExactly("Replica A");
+    }
+
+    @Test
+    @DisplayName("Pages Read From A Replica Are Not Cached")
+    public void replicaPagesNotCached(){
+        //Scenary
+        PageRequest page = PageRequest.of(0, pageSize.incrementAndGet());
+        List<String> fromReplicaA = titles(page);
+        beat(replicaA, TimeUnit.MINUTES.toMillis(1));
+        beat(replicaB, 0);
+        replicaSet.check();
+
+        //Execution
+        List<String> fromReplicaB = titles(page);
+
+        //Verification
+        assertThat(fromReplicaA).containsExactly("Replica A");
+        assertThat(fromReplicaB).containsExactly("Replica B");
+    }
+
+    @Test
+    @DisplayName("Client Reads Its Own Writes From The Primary")
+    public void clientReadsItsWrites() throws Exception {
+        //Scenary
+        BookDTO dto = BookDTO.builder().title("Mine").author("Client").isbn("routing-mine").build();
+        MvcResult created = mvc.perform(MockMvcRequestBuilders.post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE))
+                .andReturn();
+        Cookie written = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+
+        //Execution and Verification
+        mvc.perform(MockMvcRequestBuilders.get("/api/books?page=0&size=" + pageSize.incrementAndGet()).cookie(written))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content[*].title", containsInAnyOrder("Primary", "Mine")));
+        mvc.perform(MockMvcRequestBuilders.get("/api/books?page=0&size=" + pageSize.incrementAndGet()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content[*].title", contains("Replica A")));
+    }
+
+    @Test
+    @DisplayName("A Replica Read Doesn't Cache The Row A Writer Then Reads")
+    public void replicaReadNotCachedForWriter() throws Exception {
+        //Scenary
+        insertBook(primary, 100_003, "Before");
+        insertBook(replicaA, 100_003, "Before");
+        MvcResult patched = mvc.perform(MockMvcRequestBuilders.patch("/api/books/100003")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"After\"}"))
+                .andExpect(status().isNoContent())
+                .andReturn();
+        Cookie written = patched.getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+
+        //Execution and Verification
+        mvc.perform(MockMvcRequestBuilders.get("/api/books/100003"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("title").value("Before"));
+        mvc.perform(MockMvcRequestBuilders.get("/api/books/100003").cookie(written))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("title").value("After"));
+    }
+
+    @Test
+    @DisplayName("Failed And Loan Writes Don't Keep The Client On The Primary")
+    public void onlyCatalogWritesMarkClient() throws Exception {
+        //Execution and Verification
+        BookDTO duplicate = BookDTO.builder().title("Again").author("Client").isbn("routing-Primary").build();
+        mvc.perform(MockMvcRequestBuilders.post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(duplicate)))
+                .andExpect(status().isBadRequest())
+                .andExpect(cookie().doesNotExist(ReadYourWritesFilter.COOKIE));
+        LoanDTO loan = LoanDTO.builder().isbn("routing-Primary").custumer("Client").build();
+        mvc.perform(MockMvcRequestBuilders.post("/api/loan")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(loan)))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(cookie().doesNotExist(ReadYourWritesFilter.COOKIE));
+        mvc.perform(MockMvcRequestBuilders.delete("/api/books/100000"))
+                .andExpect(status().isNoContent())
+                .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE));
+    }
+
+    @Test
+    @DisplayName("Export Of A Client That Wrote Reads The Primary")
+    public void exportReadsPrimaryAfterWrite() throws Exception {
+        //Scenary
+        Cookie written = new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(System.currentTimeMillis()));
+        MvcResult started = mvc.perform(MockMvcRequestBuilders.get("/api/books/export").cookie(written))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //Execution and Verification
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"Primary\"")))
+                .andExpect(content().string(not(containsString("Replica A"))));
+    }
+
+    /**
+     * A search no earlier call in any test made, so that the page cache cannot answer it.
+     */
+    private List<String> findTitles() {
+        return titles(PageRequest.of(0, pageSize.incrementAndGet()));
+    }
+
+    private List<String> titles(PageRequest page) {
+        return bookService.find(new Book(), page)
+                .getContent().stream().map(Book::getTitle).collect(Collectors.toList());
+    }
+
+    private static JdbcTemplate replica(String url) {
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        replica.execute("create table if not exists book (id bigint primary key, title varchar(255),"
+                + " author varchar(255), isbn varchar(255), version bigint)");
+        replica.execute("create table if not exists replica_heartbeat (id int primary key, beat bigint not null)");
+        replica.update("delete from book");
+        return replica;
+    }
+
+    /**
+     * Each database gets its own id, otherwise the second level cache would hand out the book
+     * another database served first.
+     */
+    private static void insertBook(JdbcTemplate database, long id, String title) {
+        database.update("insert into book (id, title, author, isbn, version) values (?, ?, 'Routing', ?, 0)",
+                id, title, "routing-" + title);
+    }
+
+    /**
+     * Sets the heartbeat of the replica {@code lagMillis} behind the one the primary holds.
+     */
+    private void beat(JdbcTemplate replica, long lagMillis) {
+        replica.update("delete from replica_heartbeat");
+        replica.update("insert into replica_heartbeat (id, beat) values (1, ?)", primaryBeat() - lagMillis);
+    }
+
+    private long primaryBeat() {
+        return primary.queryForObject("select beat from replica_heartbeat where id = 1", Long.class);
+    }
+}
@@ -0,0 +1,77 @@
+package com.wmdm.test.service;
+
+import com.wmdm.test.api.exceptions.BusinessException;
+import com.wmdm.test.model.entity.Book;
+import com.wmdm.test.model.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class BookServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @AfterEach
+    public void tearDown(){
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Only One Concurrent Create Wins The Isbn")
+    public void concurrentCreatesWithSameIsbn() throws Exception {
+        //Scenary
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        //Execution
+        for (int i = 0; i < THREADS; i++) {
+            String title = "Copy " + i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    bookService.save(Book.builder().author("Jon").title(title).isbn("999").build());
+                    created.incrementAndGet();
+                } catch (BusinessException e) {
+                    assertThat(e).hasMessage("Isbn already registered");
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //Verification
+        assertThat(created.get()).isEqualTo(1);
+        assertThat(rejected.get()).isEqualTo(THREADS - 1);
+        assertThat(bookRepository.count()).isEqualTo(1);
+    }
+}
@@ -1,23 +1,45 @@
 package com.wmdm.test.service;
 
 import com.wmdm.test.api.exceptions.BusinessException;
+import com.wmdm.test.api.pagination.CountedPage;
+import com.wmdm.test.model.datasource.ReplicaRouting;
 import com.wmdm.test.model.entity.Book;
 import com.wmdm.test.model.repository.BookRepository;
+import com.wmdm.test.service.cache.BookIsbnCache;
 import com.wmdm.test.service.imp.BookServiceImp;
+import com.wmdm.test.service.search.BookSearchIndex;
 import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import jakarta.persistence.EntityManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -27,12 +49,18 @@ public class BookServiceTest {
 
     BookService bookService;
 
+    BookIsbnCache isbnCache;
+
+    BookSearchIndex searchIndex;
+
     @MockBean
     BookRepository bookRepository;
 
     @BeforeEach
     public void setUp(){
-        this.bookService = new BookServiceImp(bookRepository);
+        this.isbnCache = new BookIsbnCache();
+        this.searchIndex = new BookSearchIndex();
+        this.bookService = new BookServiceImp(bookRepository, isbnCache, searchIndex);
         System.out.println("-------------------------------AAA: ");
     }
 
@@ -41,7 +69,7 @@ public class BookServiceTest {
     public void saveBookTest(){
         //Scenary
         Book book = createValidBook();
-        Mockito.when(bookRepository.save(book)).thenReturn(
+        Mockito.when(bookRepository.saveAndFlush(book)).thenReturn(
                 Book.builder().id(17L).isbn("002").title("Drink").author("Jon").build()
         );
 
@@ -61,7 +89,7 @@ public class BookServiceTest {
     public void createBookWithDuplicateIsbn(){
         //Scenary
         Book book = createValidBook();
-        Mockito.when(bookRepository.existsByIsbn(book.getIsbn())).thenReturn(true);
+        Mockito.when(bookRepository.saveAndFlush(book)).thenThrow(isbnViolation());
 
         //Execution
         Throwable exception = Assertions.catchThrowable(() -> bookService.save(book));
@@ -70,7 +98,23 @@ public class BookServiceTest {
         assertThat(exception)
                 .isInstanceOf(BusinessException.class)
                 .hasMessage("Isbn already registered");
-        Mockito.verify(bookRepository, Mockito.never()).save(book);
+        Mockito.verify(bookRepository, Mockito.never()).existsByIsbn(book.getIsbn());
+    }
+
+    @Test
+    @DisplayName("Don't Hide Other Constraint Violations")
+    public void saveBookWithOtherViolation(){
+        //Scenary
+        Book book = createValidBook();
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("not null",
+                new ConstraintViolationException("not null", new SQLException(), "PUBLIC.CK_BOOK_TITLE"));
+        Mockito.when(bookRepository.saveAndFlush(book)).thenThrow(violation);
+
+        //Execution
+        Throwable exception = Assertions.catchThrowable(() -> bookService.save(book));
+
+        //Verification
+        assertThat(exception).isSameAs(violation);
     }
 
     @Test
@@ -92,6 +136,86 @@ public class BookServiceTest {
             assertThat(bookReturned.get().getIsbn()).isEqualTo(createValidBook().getIsbn());
     }
 
+    @Test
+    @DisplayName("Concurrent Get By Id Share One Load")
+    public void concurrentGetByIdTest() throws Exception {
+        //Scenary
+        Book book = createValidBook();
+        book.setId(10L);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(bookRepository.findById(10L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(book);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Thread> followers = new CopyOnWriteArrayList<>();
+
+        //Execution
+        List<Future<Optional<Book>>> results = new ArrayList<>();
+        results.add(executor.submit(() -> bookService.getById(10L)));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 3; i++) {
+            results.add(executor.submit(() -> {
+                followers.add(Thread.currentThread());
+                return bookService.getById(10L);
+            }));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((followers.size() < 3 || !followers.stream().allMatch(thread -> thread.getState() == Thread.State.TIMED_WAITING))
+                && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        //Verification
+        Set<Book> returned = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Future<Optional<Book>> result : results) {
+            Book loaded = result.get(5, TimeUnit.SECONDS).orElseThrow();
+            assertThat(loaded.getId()).isEqualTo(10L);
+            assertThat(loaded.getIsbn()).isEqualTo("001");
+            returned.add(loaded);
+        }
+        assertThat(returned).hasSize(4);
+        Mockito.verify(bookRepository, Mockito.times(1)).findById(10L);
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Get By Id Reading Its Own Writes Does Not Join A Shared Load")
+    public void primaryOnlyGetByIdTest() throws Exception {
+        //Scenary
+        Book stale = createValidBook();
+        stale.setId(10L);
+        Book written = createValidBook();
+        written.setId(10L);
+        written.setTitle("Written");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(bookRepository.findById(10L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(stale);
+        }).thenReturn(Optional.of(written));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        //Execution
+        Future<Optional<Book>> shared = executor.submit(() -> bookService.getById(10L));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        Optional<Book> own;
+        try (ReplicaRouting.Scope primaryOnly = ReplicaRouting.primaryOnly()) {
+            own = bookService.getById(10L);
+        }
+        release.countDown();
+
+        //Verification
+        assertThat(own).get().extracting(Book::getTitle).isEqualTo("Written");
+        assertThat(shared.get(5, TimeUnit.SECONDS)).get().extracting(Book::getTitle).isEqualTo(stale.getTitle());
+        Mockito.verify(bookRepository, Mockito.times(2)).findById(10L);
+        executor.shutdownNow();
+    }
+
 
     @Test
     @DisplayName("Update")
@@ -112,6 +236,21 @@ public class BookServiceTest {
         assertThat(bookReturned.getTitle()).isEqualTo(createValidBook().getTitle());
     }
 
+    @Test
+    @DisplayName("Update To Registered Isbn")
+    public void updateToRegisteredIsbnTest(){
+        //Scenary
+        Book book = createValidBook();
+        book.setId(1L);
+        Mockito.when(bookRepository.save(book)).thenThrow(isbnViolation());
+
+        //Execution
+        Throwable exception = Assertions.catchThrowable(() -> bookService.update(book));
+
+        //Verification
+        assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Isbn already registered");
+    }
+
     @Test
     @DisplayName("Update Not Found Book")
     public void updateNotFoundBookTest(){
@@ -164,10 +303,8 @@ public class BookServiceTest {
         PageRequest pageRequest  = PageRequest.of(0,10);
         List<Book> lista = Arrays.asList(book);
 
-        Page<Book> page = new PageImpl<Book>(Arrays.asList(book), pageRequest, 1);
-
-        Mockito.when(bookRepository.findAll(Mockito.any(Example.class), Mockito.any(PageRequest.class)))
-                .thenReturn(page);
+        Mockito.when(bookRepository.findContent(Mockito.any(Specification.class), Mockito.any(PageRequest.class)))
+                .thenReturn(lista);
 
         Page<Book> result = bookService.find(book, pageRequest);
 
@@ -179,6 +316,351 @@ public class BookServiceTest {
 
     }
 
+    @Test
+    @DisplayName("Save Books In Batch")
+    public void saveAllTest(){
+        //Scenary
+        Book first = Book.builder().author("Jon").title("Drink").isbn("001").build();
+        Book registered = Book.builder().author("Jon").title("Eat").isbn("002").build();
+        Book repeated = Book.builder().author("Jon").title("Drink Again").isbn("001").build();
+        Mockito.when(bookRepository.findRegisteredIsbns(Mockito.anyCollection()))
+                .thenReturn(new HashSet<>(Collections.singletonList("002")));
+        Mockito.when(bookRepository.saveAll(Mockito.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        //Execution
+        List<Book> saved = bookService.saveAll(Arrays.asList(first, registered, repeated));
+
+        //Verification
+        assertThat(saved).containsExactly(first);
+        Mockito.verify(bookRepository, Mockito.times(1)).findRegisteredIsbns(Mockito.anyCollection());
+        Mockito.verify(bookRepository, Mockito.never()).existsByIsbn(Mockito.anyString());
+    }
+
+    @Test
+    @DisplayName("Save Books In Batch One Lookup Per Chunk")
+    public void saveAllChunksTest(){
+        //Scenary
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            books.add(Book.builder().author("Jon").title("Drink").isbn(String.valueOf(i)).build());
+        }
+        Mockito.when(bookRepository.saveAll(Mockito.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        //Execution
+        List<Book> saved = bookService.saveAll(books);
+
+        //Verification
+        assertThat(saved).hasSize(1200);
+        Mockito.verify(bookRepository, Mockito.times(3)).findRegisteredIsbns(Mockito.anyCollection());
+        Mockito.verify(bookRepository, Mockito.times(3)).saveAll(Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("Save Books In Batch After Concurrent Insert")
+    public void saveAllConcurrentInsertTest(){
+        //Scenary
+        Book first = Book.builder().author("Jon").title("Drink").isbn("001").build();
+        Book taken = Book.builder().author("Jon").title("Eat").isbn("002").build();
+        Mockito.when(bookRepository.saveAll(Mockito.anyList())).thenThrow(isbnViolation());
+        Mockito.when(bookRepository.saveAndFlush(first)).thenReturn(first);
+        Mockito.when(bookRepository.saveAndFlush(taken)).thenThrow(isbnViolation());
+
+        //Execution
+        List<Book> saved = bookService.saveAll(Arrays.asList(first, taken));
+
+        //Verification
+        assertThat(saved).containsExactly(first);
+    }
+
+    @Test
+    @DisplayName("Get Book By Isbn")
+    public void getBookByIsbnTest(){
+        //Scenary
+        Book book = createValidBook();
+        book.setId(1L);
+        Mockito.when(bookRepository.findByNaturalId("001")).thenReturn(Optional.of(book));
+
+        //Execution
+        Optional<Book> first = bookService.getBookByIsbn("001");
+        Optional<Book> second = bookService.getBookByIsbn(" 001 ");
+
+        //Verification
+        assertThat(first).contains(book);
+        assertThat(second).contains(book);
+        assertThat(first.get()).isNotSameAs(second.get());
+        Mockito.verify(bookRepository, Mockito.times(1)).findByNaturalId("001");
+        assertThat(isbnCache.stats().hitCount()).isEqualTo(1);
+        assertThat(isbnCache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Get Book By Isbn Not Found Is Not Cached")
+    public void getBookByIsbnNotFoundTest(){
+        //Scenary
+        Mockito.when(bookRepository.findByNaturalId("001")).thenReturn(Optional.empty());
+
+        //Execution
+        Optional<Book> first = bookService.getBookByIsbn("001");
+        Optional<Book> second = bookService.getBookByIsbn("001");
+
+        //Verification
+        assertThat(first).isEmpty();
+        assertThat(second).isEmpty();
+        Mockito.verify(bookRepository, Mockito.times(2)).findByNaturalId("001");
+    }
+
+    @Test
+    @DisplayName("Update And Delete Invalidate Isbn Cache")
+    public void isbnCacheInvalidationTest(){
+        //Scenary
+        Book book = createValidBook();
+        book.setId(1L);
+        Mockito.when(bookRepository.findByNaturalId("001")).thenReturn(Optional.of(book));
+        bookService.getBookByIsbn("001");
+
+        //Execution
+        Book changed = Book.builder().id(1L).author("Jon").title("Drink").isbn("002").build();
+        Mockito.when(bookRepository.save(changed)).thenReturn(changed);
+        bookService.update(changed);
+        bookService.getBookByIsbn("001");
+        bookService.delete(changed);
+        bookService.getBookByIsbn("001");
+
+        //Verification
+        Mockito.verify(bookRepository, Mockito.times(3)).findByNaturalId("001");
+    }
+
+    @Test
+    @DisplayName("Find Book Through Search Index")
+    public void findBookThroughSearchIndexTest(){
+        //Scenary
+        Book book = Book.builder().id(1L).author("Jon").title("Drink").isbn("001").build();
+        searchIndex.index(book);
+        searchIndex.index(Book.builder().id(2L).author("Jon").title("Eat").isbn("002").build());
+        searchIndex.markReady();
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        Mockito.when(bookRepository.findContent(Mockito.any(Specification.class), Mockito.eq(pageRequest)))
+                .thenReturn(Arrays.asList(book));
+
+        //Execution
+        Page<Book> result = bookService.find(Book.builder().title("RIN").build(), pageRequest);
+        Page<Book> none = bookService.find(Book.builder().title("sleep").build(), pageRequest);
+
+        //Verification
+        assertThat(result.getContent()).containsExactly(book);
+        assertThat(none.getTotalElements()).isZero();
+        Mockito.verify(bookRepository, Mockito.times(1)).findContent(Mockito.any(Specification.class), Mockito.eq(pageRequest));
+        Mockito.verify(bookRepository, Mockito.never()).count(Mockito.any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("Find Pages Of A Search Share One Count Until A Write")
+    public void findSharesCountTest(){
+        //Scenary
+        Book filter = Book.builder().author("Jon").build();
+        Mockito.when(bookRepository.findContent(Mockito.any(Specification.class), Mockito.any(Pageable.class)))
+                .thenReturn(Arrays.asList(createValidBook(), createValidBook()));
+        Mockito.when(bookRepository.count(Mockito.any(Specification.class))).thenReturn(7L, 8L);
+        Mockito.when(bookRepository.saveAndFlush(Mockito.any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        //Execution
+        Page<Book> first = bookService.find(filter, PageRequest.of(0, 2));
+        Page<Book> second = bookService.find(Book.builder().author("JON").build(), PageRequest.of(1, 2));
+        bookService.save(Book.builder().id(9L).author("Jon").title("Eat").isbn("009").build());
+        Page<Book> afterWrite = bookService.find(filter, PageRequest.of(0, 2));
+
+        //Verification
+        assertThat(first.getTotalElements()).isEqualTo(7);
+        assertThat(second.getTotalElements()).isEqualTo(7);
+        assertThat(afterWrite.getTotalElements()).isEqualTo(8);
+        Mockito.verify(bookRepository, Mockito.times(2)).count(Mockito.any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("Repeated Find Is Served From The Page Cache Until A Write")
+    public void findPageCacheTest(){
+        //Scenary
+        Mockito.when(bookRepository.findContent(Mockito.any(Specification.class), Mockito.any(Pageable.class)))
+                .thenReturn(Arrays.asList(createValidBook(), createValidBook()));
+        Mockito.when(bookRepository.count(Mockito.any(Specification.class))).thenReturn(7L);
+        Mockito.when(bookRepository.save(Mockito.any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        PageRequest byTitle = PageRequest.of(0, 2, Sort.by("title"));
+
+        //Execution
+        Page<Book> first = bookService.find(Book.builder().author("Jon").build(), byTitle);
+        Page<Book> repeated = bookService.find(Book.builder().author("jon").build(), PageRequest.of(0, 2, Sort.by("title")));
+        bookService.find(Book.builder().author("Jon").build(), PageRequest.of(0, 2, Sort.by("isbn")));
+        bookService.update(Book.builder().id(1L).author("Jon").title("Eat").isbn("001").build());
+        bookService.find(Book.builder().author("Jon").build(), byTitle);
+
+        //Verification
+        assertThat(repeated).isSameAs(first);
+        Mockito.verify(bookRepository, Mockito.times(3)).findContent(Mockito.any(Specification.class), Mockito.any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Find Last Page Takes The Total From Its Content")
+    public void findLastPageWithoutCountTest(){
+        //Scenary
+        Mockito.when(bookRepository.findContent(Mockito.any(Specification.class), Mockito.any(Pageable.class)))
+                .thenReturn(Arrays.asList(createValidBook()));
+
+        //Execution
+        Page<Book> result = bookService.find(new Book(), PageRequest.of(3, 2));
+
+        //Verification
+        assertThat(result.getTotalElements()).isEqualTo(7);
+        Mockito.verify(bookRepository, Mockito.never()).count(Mockito.any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("Find With Approximate Total Reuses The Last Count")
+    public void findApproximateTotalTest(){
+        //Scenary
+        Book filter = Book.builder().author("Jon").build();
+        Mockito.when(bookRepository.findContent(Mockito.any(Specification.class), Mockito.any(Pageable.class)))
+                .thenReturn(Arrays.asList(createValidBook(), createValidBook()));
+        Mockito.when(bookRepository.count(Mockito.any(Specification.class))).thenReturn(7L);
+        Mockito.when(bookRepository.saveAndFlush(Mockito.any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        //Execution
+        Page<Book> counted = bookService.find(filter, PageRequest.of(0, 2), true);
+        Page<Book> current = bookService.find(filter, PageRequest.of(1, 2), true);
+        bookService.save(Book.builder().id(9L).author("Jon").title("Eat").isbn("009").build());
+        Page<Book> estimated = bookService.find(filter, PageRequest.of(0, 2), true);
+
+        //Verification
+        assertThat(counted.getTotalElements()).isEqualTo(7);
+        assertThat(((CountedPage<Book>) counted).isTotalApproximate()).isFalse();
+        assertThat(((CountedPage<Book>) current).isTotalApproximate()).isFalse();
+        assertThat(estimated.getTotalElements()).isEqualTo(7);
+        assertThat(((CountedPage<Book>) estimated).isTotalApproximate()).isTrue();
+        Mockito.verify(bookRepository, Mockito.times(1)).count(Mockito.any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("Find With Approximate Total Estimates From The Search Index")
+    public void findApproximateTotalFromIndexTest(){
+        //Scenary
+        for (long id = 1; id <= 5; id++) {
+            searchIndex.index(Book.builder().id(id).author("Jon").title("Drink " + id).isbn("00" + id).build());
+        }
+        searchIndex.markReady();
+        Mockito.when(bookRepository.findContent(Mockito.any(Specification.class), Mockito.any(Pageable.class)))
+                .thenReturn(Arrays.asList(createValidBook(), createValidBook()));
+
+        //Execution
+        Page<Book> result = bookService.find(Book.builder().title("drink").build(), PageRequest.of(0, 2), true);
+
+        //Verification
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(((CountedPage<Book>) result).isTotalApproximate()).isTrue();
+        Mockito.verify(bookRepository, Mockito.never()).count(Mockito.any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("Save Update And Delete Keep Search Index In Sync")
+    public void searchIndexSyncTest(){
+        //Scenary
+        searchIndex.markReady();
+        Book book = Book.builder().author("Jon").title("Drink").isbn("001").build();
+        Mockito.when(bookRepository.saveAndFlush(book))
+                .thenReturn(Book.builder().id(1L).author("Jon").title("Drink").isbn("001").build());
+        Book changed = Book.builder().id(1L).author("Jon").title("Sleep").isbn("001").build();
+        Mockito.when(bookRepository.save(changed)).thenReturn(changed);
+
+        //Execution and Verification
+        bookService.save(book);
+        assertThat(searchIndex.match("drink", null)).contains(Collections.singleton(1L));
+        bookService.update(changed);
+        assertThat(searchIndex.match("drink", null)).contains(Collections.emptySet());
+        assertThat(searchIndex.match("leep", null)).contains(Collections.singleton(1L));
+        bookService.delete(changed);
+        assertThat(searchIndex.match("leep", null)).contains(Collections.emptySet());
+    }
+
+    @Test
+    @DisplayName("Patch And Delete By Id Keep Caches In Sync")
+    public void patchAndDeleteByIdTest(){
+        //Scenary
+        searchIndex.markReady();
+        Book book = Book.builder().id(1L).author("Jon").title("Drink").isbn("001").build();
+        searchIndex.index(book);
+        Mockito.when(bookRepository.findByNaturalId("001")).thenReturn(Optional.of(book));
+        bookService.getBookByIsbn("001");
+        Mockito.when(bookRepository.patch(1L, "Sleep", null, null, 3L)).thenReturn(1);
+        Mockito.when(bookRepository.deleteBookById(1L)).thenReturn(1, 0);
+
+        //Execution and Verification
+        assertThat(bookService.patch(1L, Book.builder().title("Sleep").build(), 3L)).isTrue();
+        assertThat(searchIndex.match("leep", "jon")).contains(Collections.singleton(1L));
+        bookService.getBookByIsbn("001");
+        Mockito.verify(bookRepository, Mockito.times(2)).findByNaturalId("001");
+
+        assertThat(bookService.patch(2L, Book.builder().title("Sleep").build(), null)).isFalse();
+        assertThat(bookService.deleteById(1L)).isTrue();
+        assertThat(bookService.deleteById(1L)).isFalse();
+        assertThat(searchIndex.match("leep", null)).contains(Collections.emptySet());
+    }
+
+    @Test
+    @DisplayName("Patch To Registered Isbn")
+    public void patchToRegisteredIsbnTest(){
+        //Scenary
+        Mockito.when(bookRepository.patch(1L, null, null, "002", null)).thenThrow(isbnViolation());
+
+        //Execution
+        Throwable exception = Assertions.catchThrowable(() -> bookService.patch(1L, Book.builder().isbn("002").build(), null));
+
+        //Verification
+        assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Isbn already registered");
+    }
+
+    @Test
+    @DisplayName("For Each Book Detaches Streamed Books")
+    public void forEachBookTest(){
+        //Scenary
+        EntityManager entityManager = Mockito.mock(EntityManager.class);
+        ReflectionTestUtils.setField(bookService, "entityManager", entityManager);
+        Book first = Book.builder().id(1L).author("Jon").title("A").isbn("001").build();
+        Book second = Book.builder().id(2L).author("Jon").title("B").isbn("002").build();
+        Mockito.when(bookRepository.streamAll()).thenReturn(Stream.of(first, second));
+        List<Book> visited = new ArrayList<>();
+
+        //Execution
+        bookService.forEachBook(visited::add);
+
+        //Verification
+        assertThat(visited).containsExactly(first, second);
+        Mockito.verify(entityManager).detach(first);
+        Mockito.verify(entityManager).detach(second);
+    }
+
+    @Test
+    @DisplayName("Find After Cursor")
+    public void findAfterTest(){
+        //Scenary
+        Book first = Book.builder().id(1L).author("Jon").title("A").isbn("001").build();
+        Book second = Book.builder().id(2L).author("Jon").title("B").isbn("002").build();
+        Book third = Book.builder().id(3L).author("Jon").title("C").isbn("003").build();
+        Sort.Order order = Sort.Order.asc("title");
+        Mockito.when(bookRepository.findAllAfter(Mockito.any(Example.class), Mockito.eq(order), Mockito.isNull(), Mockito.eq(3)))
+                .thenReturn(Arrays.asList(first, second, third));
+
+        //Execution
+        Slice<Book> result = bookService.findAfter(new Book(), order, null, 2);
+
+        //Verification
+        assertThat(result.getContent()).containsExactly(first, second);
+        assertThat(result.hasNext()).isTrue();
+        Mockito.verify(bookRepository, Mockito.never()).count(Mockito.any(Example.class));
+    }
+
+    private DataIntegrityViolationException isbnViolation() {
+        return new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException(), "PUBLIC.UK_BOOK_ISBN_INDEX_1"));
+    }
+
     private Book createValidBook() {
         return Book.builder().author("Jon").title("Drink").isbn("001").build();
     }
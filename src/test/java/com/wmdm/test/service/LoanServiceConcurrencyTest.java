@@ -0,0 +1,77 @@
+package com.wmdm.test.service;
+
+import com.wmdm.test.api.exceptions.BusinessException;
+import com.wmdm.test.model.entity.Loan;
+import com.wmdm.test.model.repository.LoanRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class LoanServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    LoanService loanService;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @AfterEach
+    public void tearDown(){
+        loanRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Only One Concurrent Checkout Wins The Book")
+    public void concurrentCheckoutsOfSameBook() throws Exception {
+        //Scenary
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger loaned = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        //Execution
+        for (int i = 0; i < THREADS; i++) {
+            String custumer = "Custumer " + i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    loanService.save(Loan.builder().isbn("123").custumer(custumer).build());
+                    loaned.incrementAndGet();
+                } catch (BusinessException e) {
+                    assertThat(e).hasMessage("Book already loaned");
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //Verification
+        assertThat(loaned.get()).isEqualTo(1);
+        assertThat(rejected.get()).isEqualTo(THREADS - 1);
+        assertThat(loanRepository.count()).isEqualTo(1);
+    }
+}
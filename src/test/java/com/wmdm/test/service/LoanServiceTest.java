@@ -0,0 +1,162 @@
+package com.wmdm.test.service;
+
+import com.wmdm.test.api.exceptions.BusinessException;
+import com.wmdm.test.model.entity.Loan;
+import com.wmdm.test.model.repository.LoanRepository;
+import com.wmdm.test.service.imp.LoanServiceImp;
+import com.wmdm.test.service.journal.LoanEvent;
+import com.wmdm.test.service.journal.LoanJournal;
+import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class LoanServiceTest {
+
+    LoanService loanService;
+
+    @MockBean
+    LoanRepository loanRepository;
+
+    @BeforeEach
+    public void setUp(){
+        this.loanService = new LoanServiceImp(loanRepository);
+    }
+
+    @Test
+    @DisplayName("Save Loan")
+    public void saveLoanTest(){
+        //Scenary
+        Loan loan = Loan.builder().id(99L).isbn("123").custumer("Wedson").build();
+        Mockito.when(loanRepository.saveAndFlush(loan)).thenAnswer(invocation -> {
+            Loan saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+
+        //Execution
+        Loan saved = loanService.save(loan);
+
+        //Verification
+        assertThat(saved.getId()).isEqualTo(1L);
+        assertThat(saved.getActiveIsbn()).isEqualTo("123");
+        assertThat(saved.isReturned()).isFalse();
+        assertThat(saved.getLoanDate()).isEqualTo(LocalDate.now());
+        assertThat(saved.getDueDate()).isEqualTo(LocalDate.now().plusDays(Loan.LOAN_PERIOD_DAYS));
+    }
+
+    @Test
+    @DisplayName("Don't Save Loan For Loaned Book")
+    public void saveLoanForLoanedBookTest(){
+        //Scenary
+        Loan loan = Loan.builder().isbn("123").custumer("Wedson").build();
+        Mockito.when(loanRepository.saveAndFlush(loan)).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException(), "PUBLIC.UK_LOAN_ACTIVE_ISBN_INDEX_2")));
+
+        //Execution
+        Throwable exception = Assertions.catchThrowable(() -> loanService.save(loan));
+
+        //Verification
+        assertThat(exception)
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Book already loaned");
+    }
+
+    @Test
+    @DisplayName("Save Batch Of Loans With One Lookup")
+    public void saveAllLoansTest(){
+        //Scenary
+        List<Loan> loans = Arrays.asList(
+                Loan.builder().isbn("123").custumer("Wedson").build(),
+                Loan.builder().isbn("456").custumer("Maria").build(),
+                Loan.builder().isbn("123").custumer("Joao").build());
+        Mockito.when(loanRepository.findActiveIsbns(Mockito.anyCollection())).thenReturn(Collections.singleton("456"));
+        Mockito.when(loanRepository.saveAll(Mockito.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        //Execution
+        List<Loan> saved = loanService.saveAll(loans);
+
+        //Verification
+        assertThat(saved).containsExactly(loans.get(0));
+        assertThat(saved.get(0).getActiveIsbn()).isEqualTo("123");
+        Mockito.verify(loanRepository, Mockito.times(1)).findActiveIsbns(Mockito.anyCollection());
+        Mockito.verify(loanRepository, Mockito.never()).saveAndFlush(Mockito.any(Loan.class));
+    }
+
+    @Test
+    @DisplayName("Save Batch Of Loans One By One After Concurrent Checkout")
+    public void saveAllLoansAfterConcurrentCheckoutTest(){
+        //Scenary
+        Loan first = Loan.builder().isbn("123").custumer("Wedson").build();
+        Loan second = Loan.builder().isbn("456").custumer("Maria").build();
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException(), "PUBLIC.UK_LOAN_ACTIVE_ISBN_INDEX_2"));
+        Mockito.when(loanRepository.findActiveIsbns(Mockito.anyCollection())).thenReturn(Collections.emptySet());
+        Mockito.when(loanRepository.saveAll(Mockito.anyList())).thenThrow(violation);
+        Mockito.when(loanRepository.saveAndFlush(first)).thenThrow(violation);
+        Mockito.when(loanRepository.saveAndFlush(second)).thenReturn(second);
+
+        //Execution
+        List<Loan> saved = loanService.saveAll(Arrays.asList(first, second));
+
+        //Verification
+        assertThat(saved).containsExactly(second);
+    }
+
+    @Test
+    @DisplayName("Journal Checkouts And Returns")
+    public void journalLoanEventsTest(){
+        //Scenary
+        LoanJournal journal = Mockito.mock(LoanJournal.class);
+        ReflectionTestUtils.setField(loanService, "journal", journal);
+        Loan loan = Loan.builder().isbn("123").custumer("Wedson").build();
+        Mockito.when(loanRepository.saveAndFlush(loan)).thenAnswer(invocation -> {
+            Loan saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+        Mockito.when(loanRepository.markReturned(1L)).thenReturn(1);
+
+        //Execution
+        loanService.save(loan);
+        loanService.returnBook(1L);
+        loanService.returnBook(2L);
+
+        //Verification
+        ArgumentCaptor<LoanEvent> events = ArgumentCaptor.forClass(LoanEvent.class);
+        Mockito.verify(journal, Mockito.times(2)).append(events.capture());
+        assertThat(events.getAllValues()).extracting(LoanEvent::getType)
+                .containsExactly(LoanEvent.Type.CHECKOUT, LoanEvent.Type.RETURN);
+        assertThat(events.getAllValues()).extracting(LoanEvent::getLoanId).containsExactly(1L, 1L);
+    }
+
+    @Test
+    @DisplayName("Return Book")
+    public void returnBookTest(){
+        //Scenary
+        Mockito.when(loanRepository.markReturned(1L)).thenReturn(1);
+
+        //Execution and Verification
+        assertThat(loanService.returnBook(1L)).isTrue();
+        assertThat(loanService.returnBook(2L)).isFalse();
+    }
+}
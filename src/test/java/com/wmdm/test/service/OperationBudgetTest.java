@@ -0,0 +1,128 @@
+package com.wmdm.test.service;
+
+import com.wmdm.test.model.entity.Book;
+import com.wmdm.test.model.entity.Loan;
+import com.wmdm.test.model.repository.BookRepository;
+import com.wmdm.test.model.repository.LoanRepository;
+import com.wmdm.test.service.cache.CatalogVersion;
+import com.wmdm.test.support.OperationBudget;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pins the SQL statements and allocated bytes of the main service operations, so a change
+ * that adds queries or allocation to one of them fails the build. Each budget is measured
+ * after a warm-up, with the second-level cache and search index in their steady state.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class OperationBudgetTest {
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    LoanService loanService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    CatalogVersion catalogVersion;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private List<Book> catalog;
+
+    @BeforeEach
+    public void setUp(){
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            books.add(Book.builder().title("Title " + i).author("Author " + (i % 10)).isbn("budget-" + i).build());
+        }
+        catalog = bookService.saveAll(books);
+    }
+
+    @AfterEach
+    public void tearDown(){
+        loanRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Save Budget")
+    public void saveBudget(){
+        // one insert, plus a sequence call every 50 inserts
+        OperationBudget.assertWithin("save", 1.1, 96_000, () ->
+                bookService.save(Book.builder().title("New").author("Budget").isbn("save-" + sequence.incrementAndGet()).build()));
+    }
+
+    @Test
+    @DisplayName("Find Budget")
+    public void findBudget(){
+        PageRequest page = PageRequest.of(0, 20);
+        // served by the page cache
+        OperationBudget.assertWithin("find by author", 0, 4_000, () ->
+                bookService.find(Book.builder().author("author 3").build(), page));
+        OperationBudget.assertWithin("find all", 0, 4_000, () ->
+                bookService.find(new Book(), page));
+        // after a write: content and count queries
+        OperationBudget.assertWithin("find by author after write", 2, 720_000, () -> {
+            catalogVersion.bump();
+            bookService.find(Book.builder().author("author 3").build(), page);
+        });
+    }
+
+    @Test
+    @DisplayName("Get By Id Budget")
+    public void getByIdBudget(){
+        Long id = catalog.get(0).getId();
+        // served by the second-level cache
+        OperationBudget.assertWithin("getById", 0, 50_000, () ->
+                bookService.getById(id));
+    }
+
+    @Test
+    @DisplayName("Update Budget")
+    public void updateBudget(){
+        Long id = catalog.get(0).getId();
+        // cached read, one update
+        OperationBudget.assertWithin("update", 1, 150_000, () -> {
+            Book book = bookService.getById(id).get();
+            book.setTitle("Title " + sequence.incrementAndGet());
+            bookService.update(book);
+        });
+    }
+
+    @Test
+    @DisplayName("Delete Budget")
+    public void deleteBudget(){
+        Iterator<Book> books = catalog.iterator();
+        OperationBudget.assertWithin("delete", 1, 80_000, () ->
+                bookService.deleteById(books.next().getId()));
+    }
+
+    @Test
+    @DisplayName("Loan Checkout Budget")
+    public void loanCheckoutBudget(){
+        Iterator<Book> books = catalog.iterator();
+        // isbn lookup from cache, one insert, plus a sequence call every 50 loans
+        OperationBudget.assertWithin("checkout", 1.1, 132_000, () -> {
+            Book book = bookService.getBookByIsbn(books.next().getIsbn()).get();
+            loanService.save(Loan.builder().isbn(book.getIsbn()).custumer("Budget").build());
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package com.wmdm.test.service.cache;
+
+import com.wmdm.test.model.entity.Book;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookIsbnCacheTest {
+
+    private final BookIsbnCache cache = new BookIsbnCache();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @DisplayName("Drop A Book By Id Under The Isbn It Was Cached With")
+    public void invalidateById(){
+        //Scenary
+        cache.get("001", loader(1L));
+
+        //Execution
+        cache.invalidate(Book.builder().id(1L).isbn("002").build());
+        cache.get("001", loader(1L));
+
+        //Verification
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Drop A Book By Isbn Alone")
+    public void invalidateByIsbn(){
+        //Scenary
+        cache.get("001", loader(1L));
+
+        //Execution
+        cache.invalidate(Book.builder().isbn(" 001 ").build());
+        cache.get("001", loader(1L));
+        cache.get("001", loader(1L));
+
+        //Verification
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Return Without Keeping A Book The Caller Refuses")
+    public void loadWithoutKeeping(){
+        //Execution
+        Optional<Book> unkept = cache.get("001", loader(1L), () -> false);
+        cache.get("001", loader(1L));
+
+        //Verification
+        assertThat(unkept).map(Book::getIsbn).contains("001");
+        assertThat(loads).hasValue(2);
+        assertThat(cache.invalidate(Book.builder().id(1L).build())).isEqualTo("001");
+    }
+
+    private Function<String, Optional<Book>> loader(Long id) {
+        return isbn -> {
+            loads.incrementAndGet();
+            return Optional.of(Book.builder().id(id).isbn(isbn).title("Drink").author("Jon").build());
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.wmdm.test.service.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CatalogVersionTest {
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+
+    @AfterEach
+    public void tearDown(){
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Bump Right Away Outside A Transaction")
+    public void bumpOutsideTransaction(){
+        //Scenary
+        long before = catalogVersion.current();
+
+        //Execution
+        catalogVersion.bump();
+
+        //Verification
+        assertThat(catalogVersion.current()).isEqualTo(before + 1);
+    }
+
+    @Test
+    @DisplayName("Bump Only Once The Surrounding Transaction Completes")
+    public void bumpAfterTransaction(){
+        //Scenary
+        long before = catalogVersion.current();
+        TransactionSynchronizationManager.initSynchronization();
+
+        //Execution
+        catalogVersion.bump();
+        long duringTransaction = catalogVersion.current();
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        //Verification
+        assertThat(duringTransaction).isEqualTo(before);
+        assertThat(catalogVersion.current()).isEqualTo(before + 1);
+    }
+}
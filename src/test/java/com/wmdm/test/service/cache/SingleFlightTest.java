@@ -0,0 +1,177 @@
+package com.wmdm.test.service.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS + 1);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void tearDown(){
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Share One Load Between Concurrent Callers Of A Key")
+    public void shareOneLoad() throws Exception {
+        //Scenary
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofSeconds(10));
+        Function<Long, String> loader = blockingLoader(key -> "book " + key);
+
+        //Execution
+        List<Future<String>> results = startCallers(flight, 1L, loader, CALLERS);
+        release.countDown();
+
+        //Verification
+        for (Future<String> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("book 1");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(flight.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Load Different Keys Independently")
+    public void loadKeysIndependently(){
+        //Scenary
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofSeconds(10));
+
+        //Execution
+        String first = flight.load(1L, key -> "book " + key + " " + loads.incrementAndGet());
+        String second = flight.load(2L, key -> "book " + key + " " + loads.incrementAndGet());
+        String again = flight.load(1L, key -> "book " + key + " " + loads.incrementAndGet());
+
+        //Verification
+        assertThat(first).isEqualTo("book 1 1");
+        assertThat(second).isEqualTo("book 2 2");
+        assertThat(again).isEqualTo("book 1 3");
+    }
+
+    @Test
+    @DisplayName("Rethrow The Load Failure To Every Waiting Caller")
+    public void propagateFailure() throws Exception {
+        //Scenary
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofSeconds(10));
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("Database down");
+        Function<Long, String> loader = blockingLoader(key -> {
+            throw failure;
+        });
+
+        //Execution
+        List<Future<String>> results = startCallers(flight, 1L, loader, CALLERS);
+        release.countDown();
+
+        //Verification
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(10, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCause(failure);
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(flight.load(1L, key -> "recovered")).isEqualTo("recovered");
+    }
+
+    @Test
+    @DisplayName("Give Up Waiting After The Timeout Without Failing The Leader")
+    public void waitingCallerTimesOut() throws Exception {
+        //Scenary
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofMillis(50));
+        Function<Long, String> loader = blockingLoader(key -> "book " + key);
+        Future<String> leader = startCallers(flight, 1L, loader, 1).get(0);
+
+        //Execution and Verification
+        assertThatThrownBy(() -> flight.load(1L, loader))
+                .isInstanceOf(QueryTimeoutException.class)
+                .hasMessage("Timed out waiting for the in-flight load of 1");
+        release.countDown();
+        assertThat(leader.get(10, TimeUnit.SECONDS)).isEqualTo("book 1");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Start A New Load Once The Key Is Forgotten")
+    public void forgetInFlightLoad() throws Exception {
+        //Scenary
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofSeconds(10));
+        Function<Long, String> loader = blockingLoader(key -> "book " + key);
+        Future<String> beforeWrite = startCallers(flight, 1L, loader, 1).get(0);
+
+        //Execution
+        flight.forget(1L);
+        String afterWrite = flight.load(1L, key -> "book " + key + " written");
+
+        //Verification
+        assertThat(afterWrite).isEqualTo("book 1 written");
+        release.countDown();
+        assertThat(beforeWrite.get(10, TimeUnit.SECONDS)).isEqualTo("book 1");
+        assertThat(flight.inFlight()).isZero();
+    }
+
+    /**
+     * Loader that counts its calls and holds them until {@link #release} opens.
+     */
+    private Function<Long, String> blockingLoader(Function<Long, String> result) {
+        return key -> {
+            loads.incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result.apply(key);
+        };
+    }
+
+    /**
+     * Starts the callers and returns once one of them is loading and the others wait for it.
+     */
+    private List<Future<String>> startCallers(SingleFlight<Long, String> flight, Long key,
+                                              Function<Long, String> loader, int callers) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            CountDownLatch started = new CountDownLatch(1);
+            results.add(executor.submit(() -> {
+                threads.add(Thread.currentThread());
+                started.countDown();
+                return flight.load(key, loader);
+            }));
+            started.await();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!(loads.get() == 1 && threads.stream().allMatch(SingleFlightTest::isParked))
+                && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        return results;
+    }
+
+    private static boolean isParked(Thread thread) {
+        Thread.State state = thread.getState();
+        return state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING;
+    }
+}
@@ -0,0 +1,131 @@
+package com.wmdm.test.service.journal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoanJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Replay Appended Events")
+    public void replayAppendedEvents(){
+        //Scenary
+        LoanEvent checkout = LoanEvent.builder().type(LoanEvent.Type.CHECKOUT).loanId(1L).timestamp(10L)
+                .isbn("123").custumer("Wedson").dueDate(LocalDate.of(2022, 3, 10)).build();
+        LoanEvent returned = LoanEvent.returned(1L);
+
+        //Execution
+        try (LoanJournal journal = journal(1024, false)) {
+            journal.append(checkout);
+            journal.append(returned);
+        }
+        List<LoanEvent> events = new ArrayList<>();
+        long count = LoanJournalReader.replay(directory, events::add);
+
+        //Verification
+        assertThat(count).isEqualTo(2);
+        assertThat(events).containsExactly(checkout, returned);
+    }
+
+    @Test
+    @DisplayName("Roll Segments When Full")
+    public void rollSegments(){
+        //Scenary and Execution
+        try (LoanJournal journal = journal(128, false)) {
+            for (long id = 1; id <= 20; id++) {
+                journal.append(checkout(id));
+            }
+        }
+
+        //Verification
+        assertThat(LoanJournalReader.segments(directory).size()).isGreaterThan(1);
+        assertThat(LoanJournalReplay.activeLoans(directory)).hasSize(20);
+    }
+
+    @Test
+    @DisplayName("Resume After Last Record On Reopen")
+    public void resumeOnReopen(){
+        //Scenary
+        try (LoanJournal journal = journal(1024, false)) {
+            journal.append(checkout(1L));
+            journal.append(checkout(2L));
+        }
+
+        //Execution
+        try (LoanJournal journal = journal(1024, false)) {
+            journal.append(LoanEvent.returned(1L));
+        }
+
+        //Verification
+        Map<Long, LoanEvent> active = LoanJournalReplay.activeLoans(directory);
+        assertThat(active.keySet()).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Stop At Record With Bad Crc")
+    public void stopAtCorruptRecord() throws Exception {
+        //Scenary
+        try (LoanJournal journal = journal(1024, false)) {
+            journal.append(checkout(1L));
+            journal.append(checkout(2L));
+        }
+        int secondRecord = LoanEventCodec.HEADER_SIZE + LoanEventCodec.encode(checkout(1L)).length;
+        try (RandomAccessFile segment = new RandomAccessFile(LoanJournalReader.segmentPath(directory, 0).toFile(), "rw")) {
+            segment.seek(secondRecord + LoanEventCodec.HEADER_SIZE + 2);
+            segment.write(0x7f);
+        }
+
+        //Execution
+        try (LoanJournal journal = journal(1024, false)) {
+            journal.append(checkout(3L));
+        }
+
+        //Verification
+        assertThat(LoanJournalReplay.activeLoans(directory).keySet()).containsExactly(1L, 3L);
+    }
+
+    @Test
+    @DisplayName("Group Commit Concurrent Synced Appends")
+    public void syncedAppends() throws Exception {
+        //Scenary
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //Execution
+        try (LoanJournal journal = journal(64 * 1024, true)) {
+            for (long id = 1; id <= 200; id++) {
+                long loanId = id;
+                executor.execute(() -> journal.append(checkout(loanId)));
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        }
+
+        //Verification
+        assertThat(LoanJournalReplay.activeLoans(directory)).hasSize(200);
+    }
+
+    private LoanJournal journal(int segmentSize, boolean syncOnAppend) {
+        return new LoanJournal(directory, segmentSize, Duration.ofMillis(1), syncOnAppend);
+    }
+
+    private static LoanEvent checkout(long id) {
+        return LoanEvent.builder().type(LoanEvent.Type.CHECKOUT).loanId(id).timestamp(id)
+                .isbn("isbn-" + id).custumer("Wedson").build();
+    }
+}
@@ -0,0 +1,144 @@
+package com.wmdm.test.service.overdue;
+
+import com.wmdm.test.model.entity.Loan;
+import com.wmdm.test.model.repository.LoanRepository;
+import com.wmdm.test.model.repository.OverdueScanCheckpointRepository;
+import com.wmdm.test.service.imp.LoanServiceImp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class OverdueLoanScannerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2022, 3, 10);
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    OverdueScanCheckpointRepository checkpointRepository;
+
+    private final List<Loan> notified = new CopyOnWriteArrayList<>();
+
+    private OverdueLoanScanner scanner;
+
+    @AfterEach
+    public void tearDown(){
+        if (scanner != null) {
+            scanner.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Report Each Overdue Loan Once")
+    public void reportOverdueLoansOnce(){
+        //Scenary
+        Loan overdue = loan("1", TODAY.minusDays(1), false);
+        loan("2", TODAY, false);
+        loan("3", TODAY.minusDays(5), true);
+        scanner = scanner(TODAY, 500, 4);
+
+        //Execution
+        int first = scanner.scan();
+        int second = scanner.scan();
+
+        //Verification
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isZero();
+        assertThat(notified).extracting(Loan::getId).containsExactly(overdue.getId());
+    }
+
+    @Test
+    @DisplayName("Report Only Loans That Became Overdue Since Last Scan")
+    public void reportNewOverdueLoans(){
+        //Scenary
+        loan("1", TODAY.minusDays(1), false);
+        Loan dueToday = loan("2", TODAY, false);
+        scanner(TODAY, 500, 4).scan();
+        notified.clear();
+        scanner.shutdown();
+        scanner = scanner(TODAY.plusDays(1), 500, 4);
+
+        //Execution
+        int found = scanner.scan();
+
+        //Verification
+        assertThat(found).isEqualTo(1);
+        assertThat(notified).extracting(Loan::getId).containsExactly(dueToday.getId());
+    }
+
+    @Test
+    @DisplayName("Report A Loan Checked Out With A Due Date Behind The Last Scan")
+    public void reportLoanCheckedOutBehindCheckpoint(){
+        //Scenary
+        loan("1", TODAY.minusDays(1), false);
+        scanner(TODAY, 500, 4).scan();
+        notified.clear();
+        scanner.shutdown();
+        Loan checkedOut = new LoanServiceImp(loanRepository).save(Loan.builder()
+                .isbn("2").custumer("Wedson").dueDate(TODAY.minusDays(5)).build());
+        scanner = scanner(checkedOut.getDueDate().plusDays(1), 500, 4);
+
+        //Execution
+        int found = scanner.scan();
+
+        //Verification
+        assertThat(checkedOut.getDueDate()).isAfter(TODAY);
+        assertThat(found).isEqualTo(1);
+        assertThat(notified).extracting(Loan::getId).containsExactly(checkedOut.getId());
+    }
+
+    @Test
+    @DisplayName("Walk Overdue Loans In Chunks Across Workers")
+    public void scanInChunks(){
+        //Scenary
+        for (int i = 0; i < 25; i++) {
+            loan("isbn-" + i, TODAY.minusDays(1 + i % 3), false);
+        }
+        scanner = scanner(TODAY, 4, 3);
+
+        //Execution
+        int found = scanner.scan();
+
+        //Verification
+        assertThat(found).isEqualTo(25);
+        assertThat(notified.stream().map(Loan::getIsbn).collect(Collectors.toSet())).hasSize(25);
+        assertThat(checkpointRepository.findById(OverdueLoanScanner.CHECKPOINT).get().getDueDate())
+                .isEqualTo(TODAY.minusDays(1));
+    }
+
+    private OverdueLoanScanner scanner(LocalDate today, int chunkSize, int workers) {
+        Clock clock = Clock.fixed(today.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneId.of("UTC"));
+        scanner = new OverdueLoanScanner(loanRepository, checkpointRepository, notified::addAll, clock, chunkSize, workers);
+        return scanner;
+    }
+
+    private Loan loan(String isbn, LocalDate dueDate, boolean returned) {
+        return loanRepository.saveAndFlush(Loan.builder()
+                .isbn(isbn)
+                .activeIsbn(returned ? null : isbn)
+                .returned(returned)
+                .custumer("Wedson")
+                .loanDate(dueDate.minusDays(Loan.LOAN_PERIOD_DAYS))
+                .dueDate(dueDate)
+                .build());
+    }
+}
@@ -0,0 +1,98 @@
+package com.wmdm.test.service.search;
+
+import com.wmdm.test.model.entity.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookSearchIndexTest {
+
+    BookSearchIndex index;
+
+    @BeforeEach
+    public void setUp(){
+        index = new BookSearchIndex();
+        index.index(Book.builder().id(1L).title("O Menino da Vila").author("João").build());
+        index.index(Book.builder().id(2L).title("A Vila").author("Maria").build());
+        index.index(Book.builder().id(3L).title("Drink").author("Jon").build());
+        index.markReady();
+    }
+
+    @Test
+    @DisplayName("Match Substring Ignoring Case")
+    public void matchSubstringTest(){
+        assertThat(index.match("VILA", null)).contains(new HashSet<>(Arrays.asList(1L, 2L)));
+        assertThat(index.match("menino da", null)).contains(Collections.singleton(1L));
+        assertThat(index.match("vila", "mar")).contains(Collections.singleton(2L));
+        assertThat(index.match("vilas", null)).contains(Collections.emptySet());
+    }
+
+    @Test
+    @DisplayName("Candidates Are Verified Against The Text")
+    public void verifyCandidatesTest(){
+        index.index(Book.builder().id(4L).title("abcXbcd").author("Jon").build());
+
+        assertThat(index.match("abcd", null)).contains(Collections.emptySet());
+    }
+
+    @Test
+    @DisplayName("Short Terms Are Left To The Database")
+    public void shortTermTest(){
+        assertThat(index.match("vi", null)).isEmpty();
+        assertThat(index.match("vi", "jo")).isEmpty();
+        assertThat(index.match("vi", "joão")).contains(Collections.singleton(1L));
+    }
+
+    @Test
+    @DisplayName("Not Ready Index Does Not Answer")
+    public void notReadyTest(){
+        BookSearchIndex building = new BookSearchIndex();
+        building.index(Book.builder().id(1L).title("Drink").author("Jon").build());
+
+        assertThat(building.match("drink", null)).isEmpty();
+        assertThat(new BookSearchIndex(false).match("drink", null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Reindex And Remove")
+    public void reindexAndRemoveTest(){
+        index.index(Book.builder().id(3L).title("Eat").author("Jon").build());
+        index.remove(1L);
+
+        assertThat(index.match("drink", null)).contains(Collections.emptySet());
+        assertThat(index.match("vila", null)).contains(Collections.singleton(2L));
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Rebuild Reloads Books Written While It Runs")
+    public void rebuildReloadsWrittenBooks(){
+        //Scenary
+        index.startRebuild();
+        index.update(1L, "O Menino da Praia", null);
+        index.remove(2L);
+
+        //Execution
+        index.load(1L, Book.builder().id(1L).title("O Menino da Vila").author("João").build());
+        index.load(2L, Book.builder().id(2L).title("A Vila").author("Maria").build());
+        index.load(3L, Book.builder().id(3L).title("Drink").author("Jon").build());
+        Set<Long> written = index.finishRebuild();
+        index.load(1L, Book.builder().id(1L).title("O Menino da Praia").author("João").build());
+        index.load(2L, null);
+
+        //Verification
+        assertThat(written).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.match("vila", null)).isEmpty();
+        assertThat(index.finishRebuild()).isEmpty();
+        assertThat(index.match("vila", null)).contains(Collections.emptySet());
+        assertThat(index.match("praia", null)).contains(Collections.singleton(1L));
+        assertThat(index.match("drink", null)).contains(Collections.singleton(3L));
+    }
+}
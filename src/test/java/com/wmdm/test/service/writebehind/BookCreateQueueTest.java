@@ -0,0 +1,210 @@
+package com.wmdm.test.service.writebehind;
+
+import com.wmdm.test.api.exceptions.BusinessException;
+import com.wmdm.test.model.entity.Book;
+import com.wmdm.test.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BookCreateQueueTest {
+
+    private final BookService bookService = Mockito.mock(BookService.class);
+    private final AtomicLong ids = new AtomicLong();
+
+    private BookCreateQueue queue;
+
+    @AfterEach
+    public void tearDown(){
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Flush A Full Group Of Creates In One Batch")
+    public void flushFullBatch(){
+        //Scenary
+        persistEveryBook();
+        queue = new BookCreateQueue(bookService, 100, 3, Duration.ofMinutes(1));
+
+        //Execution
+        List<CompletableFuture<Book>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(queue.submit(book("isbn-" + i)));
+        }
+
+        //Verification
+        List<Book> saved = new ArrayList<>();
+        results.forEach(result -> saved.add(result.orTimeout(5, TimeUnit.SECONDS).join()));
+        assertThat(saved).extracting(Book::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(saved).extracting(Book::getIsbn).containsExactly("isbn-0", "isbn-1", "isbn-2");
+        Mockito.verify(bookService, Mockito.times(1)).saveAll(Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("Flush A Partial Group After The Max Delay")
+    public void flushAfterMaxDelay(){
+        //Scenary
+        persistEveryBook();
+        queue = new BookCreateQueue(bookService, 100, 500, Duration.ofMillis(20));
+
+        //Execution
+        Book saved = queue.save(book("123"));
+
+        //Verification
+        assertThat(saved.getId()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Fail Only The Caller Whose Isbn Is Already Registered")
+    public void failDuplicateCaller(){
+        //Scenary
+        Mockito.when(bookService.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            Book first = books.get(0);
+            first.setId(ids.incrementAndGet());
+            return List.of(first);
+        });
+        queue = new BookCreateQueue(bookService, 100, 2, Duration.ofMinutes(1));
+
+        //Execution
+        CompletableFuture<Book> first = queue.submit(book("123"));
+        CompletableFuture<Book> second = queue.submit(book("123"));
+
+        //Verification
+        assertThat(first.orTimeout(5, TimeUnit.SECONDS).join().getId()).isNotNull();
+        assertThatThrownBy(() -> second.orTimeout(5, TimeUnit.SECONDS).join())
+                .hasCauseInstanceOf(BusinessException.class)
+                .hasRootCauseMessage("Isbn already registered");
+    }
+
+    @Test
+    @DisplayName("Reject Creates When The Queue Is Full")
+    public void rejectWhenFull() throws Exception {
+        //Scenary
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(bookService.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        queue = new BookCreateQueue(bookService, 1, 1, Duration.ZERO);
+        CompletableFuture<Book> inFlush = queue.submit(book("1"));
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Book> queued = queue.submit(book("2"));
+
+        //Execution and Verification
+        assertThatThrownBy(() -> queue.submit(book("3")))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessage("Book create queue is full");
+        release.countDown();
+        assertThat(inFlush.orTimeout(5, TimeUnit.SECONDS).join().getIsbn()).isEqualTo("1");
+        assertThat(queued.orTimeout(5, TimeUnit.SECONDS).join().getIsbn()).isEqualTo("2");
+    }
+
+    @Test
+    @DisplayName("Propagate A Flush Failure To Every Caller Of The Group")
+    public void propagateFlushFailure(){
+        //Scenary
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("Database down");
+        Mockito.when(bookService.saveAll(Mockito.anyList())).thenThrow(failure);
+        queue = new BookCreateQueue(bookService, 100, 2, Duration.ofMinutes(1));
+
+        //Execution
+        CompletableFuture<Book> first = queue.submit(book("1"));
+
+        //Verification
+        assertThatThrownBy(() -> queue.save(book("2"))).isSameAs(failure);
+        assertThatThrownBy(() -> first.orTimeout(5, TimeUnit.SECONDS).join()).hasCause(failure);
+    }
+
+    @Test
+    @DisplayName("Keep Flushing After A Flush Throws An Error")
+    public void keepFlushingAfterError(){
+        //Scenary
+        StackOverflowError error = new StackOverflowError();
+        Mockito.when(bookService.saveAll(Mockito.anyList())).thenThrow(error).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            books.forEach(book -> book.setId(ids.incrementAndGet()));
+            return books;
+        });
+        queue = new BookCreateQueue(bookService, 100, 1, Duration.ZERO);
+
+        //Execution
+        CompletableFuture<Book> failed = queue.submit(book("1"));
+        Book saved = queue.save(book("2"));
+
+        //Verification
+        assertThatThrownBy(() -> failed.orTimeout(5, TimeUnit.SECONDS).join()).hasCause(error);
+        assertThat(saved.getId()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Time Out A Save Whose Flush Does Not Complete")
+    public void timeOutStuckSave(){
+        //Scenary
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(bookService.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        queue = new BookCreateQueue(bookService, 100, 1, Duration.ZERO, Duration.ofMillis(50));
+
+        //Execution and Verification
+        assertThatThrownBy(() -> queue.save(book("123")))
+                .isInstanceOf(BookCreateTimeoutException.class)
+                .hasMessage("Timed out waiting for the create of 123");
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Flush Queued Creates On Close And Reject Later Ones")
+    public void flushOnClose(){
+        //Scenary
+        persistEveryBook();
+        queue = new BookCreateQueue(bookService, 100, 500, Duration.ofMinutes(1));
+        CompletableFuture<Book> pending = queue.submit(book("123"));
+
+        //Execution
+        queue.close();
+
+        //Verification
+        assertThat(pending).isCompleted();
+        assertThat(pending.join().getId()).isNotNull();
+        assertThatThrownBy(() -> queue.submit(book("456")))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessage("Book create queue is closed");
+        ArgumentCaptor<List<Book>> flushed = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(bookService).saveAll(flushed.capture());
+        assertThat(flushed.getValue()).extracting(Book::getIsbn).containsExactly("123");
+    }
+
+    private void persistEveryBook() {
+        Mockito.when(bookService.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            books.forEach(book -> book.setId(ids.incrementAndGet()));
+            return books;
+        });
+    }
+
+    private static Book book(String isbn) {
+        return Book.builder().title("Title").author("Author").isbn(isbn).build();
+    }
+}
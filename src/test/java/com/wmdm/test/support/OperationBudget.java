@@ -0,0 +1,77 @@
+package com.wmdm.test.support;
+
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the SQL statements and the bytes allocated on the calling thread by an
+ * operation, and fails when they exceed the budget pinned for it.
+ */
+public final class OperationBudget {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private OperationBudget() {
+    }
+
+    static final int WARM_UP = 200;
+    static final int RUNS = 20;
+
+    /**
+     * Average cost of {@code runs} consecutive runs of the operation.
+     */
+    public static Cost measure(int runs, Runnable operation) {
+        long thread = Thread.currentThread().getId();
+        long statements = SqlStatementCounter.count();
+        long bytes = THREADS.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < runs; i++) {
+            operation.run();
+        }
+        return new Cost((double) (SqlStatementCounter.count() - statements) / runs,
+                (THREADS.getThreadAllocatedBytes(thread) - bytes) / runs);
+    }
+
+    /**
+     * Warms the operation up with {@value #WARM_UP} unmeasured runs, then asserts the average
+     * cost of the next {@value #RUNS} runs against the budget. The operation must therefore
+     * be repeatable {@code WARM_UP + RUNS} times.
+     */
+    public static Cost assertWithin(String name, double maxStatements, long maxBytes, Runnable operation) {
+        for (int i = 0; i < WARM_UP; i++) {
+            operation.run();
+        }
+        Cost cost = measure(RUNS, operation);
+        assertThat(cost.getStatements())
+                .as("%s issued %.2f SQL statements per call, budget is %.2f", name, cost.getStatements(), maxStatements)
+                .isLessThanOrEqualTo(maxStatements);
+        assertThat(cost.getBytes())
+                .as("%s allocated %d bytes per call, budget is %d", name, cost.getBytes(), maxBytes)
+                .isLessThanOrEqualTo(maxBytes);
+        return cost;
+    }
+
+    public static final class Cost {
+        private final double statements;
+        private final long bytes;
+
+        Cost(double statements, long bytes) {
+            this.statements = statements;
+            this.bytes = bytes;
+        }
+
+        public double getStatements() {
+            return statements;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public String toString() {
+            return statements + " statements, " + bytes + " bytes";
+        }
+    }
+}